@@ -0,0 +1,104 @@
+package stone.mae2.logic.expression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks every stage an advanced level emitter's expression goes through,
+ * from tokenizing what the player typed to evaluating it against an inventory.
+ * The inventory answers like the grid's inventory index does, from counts that
+ * are already known, so only the expression engine is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+    @Param({
+        "minecraft:stone > 1000",
+        "minecraft:stone > 1000 && minecraft:cobblestone < 64 || !(minecraft:diamond >= 10)",
+        "forge:ingots/* > 100 && minecraft:*_log > 64",
+        "min(forge:ingots/iron, forge:ores/iron * 2) > sum(forge:ingots/gold, forge:ingots/copper) / 3",
+    })
+    public String expression;
+
+    private List<Token> tokens;
+    private Node node;
+    private CompiledExpression compiled;
+    private Evaluator evaluator;
+    private InventoryContext context;
+
+    @Setup
+    public void setUp() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("minecraft:stone", 12_000L);
+        counts.put("minecraft:cobblestone", 32L);
+        counts.put("minecraft:diamond", 5L);
+        counts.put("forge:ingots/*", 4_000L);
+        counts.put("minecraft:*_log", 800L);
+        counts.put("forge:ingots/iron", 2_000L);
+        counts.put("forge:ores/iron", 700L);
+        counts.put("forge:ingots/gold", 300L);
+        counts.put("forge:ingots/copper", 1_200L);
+        context = tag -> counts.getOrDefault(tag, 0L);
+
+        tokens = new Tokenizer(expression).tokenize();
+        node = new ExpressionParser(tokens).parse();
+        compiled = CompiledExpression.compile(node);
+        evaluator = new Evaluator(context);
+    }
+
+    @Benchmark
+    public List<Token> tokenize() {
+        return new Tokenizer(expression).tokenize();
+    }
+
+    @Benchmark
+    public Node parse() {
+        return new ExpressionParser(tokens).parse();
+    }
+
+    @Benchmark
+    public CompiledExpression compile() {
+        return CompiledExpression.compile(node);
+    }
+
+    /**
+     * What an emitter pays each time it's alerted
+     */
+    @Benchmark
+    public boolean evaluateCompiled() {
+        return compiled.evaluate(context);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return evaluator.evaluate(node);
+    }
+
+    /**
+     * Everything from scratch, like the first evaluation after an expression
+     * is entered
+     */
+    @Benchmark
+    public boolean parseAndEvaluate() {
+        Node parsed = new ExpressionParser(new Tokenizer(expression).tokenize()).parse();
+        return CompiledExpression.compile(parsed).evaluate(context);
+    }
+}
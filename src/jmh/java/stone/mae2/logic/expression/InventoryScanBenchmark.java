@@ -0,0 +1,197 @@
+package stone.mae2.logic.expression;
+
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks counting a grid's inventory by id, tag and wildcard pattern the
+ * way the inventory index does, over a synthetic inventory. Keys have an id
+ * and a handful of tags, popular tags like ingots being shared by many keys,
+ * so the fan out is close to a modded inventory's.
+ *
+ * Real keys need a running game, so this mirrors the index's data structures
+ * rather than using it directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryScanBenchmark {
+    private static final String[] TAG_KINDS = {
+        "forge:ingots/", "forge:ores/", "forge:dusts/", "forge:plates/", "forge:storage_blocks/", "minecraft:",
+    };
+    private static final String[] PATTERNS = {
+        "forge:ingots/*", "forge:ores/*", "*_3", "minecraft:*",
+    };
+
+    @Param({"1000", "10000", "100000"})
+    public int keys;
+
+    // ids and tags of every key, without duplicates
+    private String[][] identifiers;
+    private long[] amounts;
+    private Set<String> knownIdentifiers;
+    private Set<String>[] resolvedPatterns;
+    private Object2LongOpenHashMap<String> identifierCounts;
+    private long[] patternCounts;
+    private int nextKey;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(42);
+        int tags = Math.max(50, keys / 20);
+        identifiers = new String[keys][];
+        amounts = new long[keys];
+        knownIdentifiers = new ObjectOpenHashSet<>();
+        for (int i = 0; i < keys; i++) {
+            Set<String> ids = new LinkedHashSet<>();
+            ids.add("mod" + (i % 50) + ":item_" + i);
+            // 0 to 6 tags, 3 on average, the first tags being the popular ones
+            int tagCount = random.nextInt(4) + random.nextInt(4);
+            for (int j = 0; j < tagCount; j++) {
+                double skew = random.nextDouble();
+                int tag = (int) (tags * skew * skew);
+                ids.add(TAG_KINDS[tag % TAG_KINDS.length] + "material_" + tag);
+            }
+            identifiers[i] = ids.toArray(String[]::new);
+            amounts[i] = 1 + random.nextInt(100_000);
+            knownIdentifiers.addAll(ids);
+        }
+
+        resolvedPatterns = new Set[PATTERNS.length];
+        for (int i = 0; i < PATTERNS.length; i++) {
+            resolvedPatterns[i] = resolve(PATTERNS[i]);
+        }
+        identifierCounts = rebuild();
+        patternCounts = new long[PATTERNS.length];
+    }
+
+    /**
+     * Counting everything from scratch, which the index does when it's built
+     * or tags reload
+     */
+    @Benchmark
+    public Object2LongOpenHashMap<String> rebuild() {
+        Object2LongOpenHashMap<String> counts = new Object2LongOpenHashMap<>();
+        for (int i = 0; i < keys; i++) {
+            long amount = amounts[i];
+            for (String id : identifiers[i]) {
+                counts.addTo(id, amount);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * A wildcard scan the way it was done before the glob matcher, for
+     * comparison
+     */
+    @Benchmark
+    public long regexScan() {
+        Pattern regex = Pattern.compile(PATTERNS[0].replace("*", ".*"));
+        long count = 0;
+        for (int i = 0; i < keys; i++) {
+            for (String id : identifiers[i]) {
+                if (regex.matcher(id).matches()) {
+                    count += amounts[i];
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long globScan() {
+        WildcardPattern pattern = WildcardPattern.compile(PATTERNS[0]);
+        long count = 0;
+        for (int i = 0; i < keys; i++) {
+            if (pattern.matchesAny(identifiers[i])) {
+                count += amounts[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finding which ids a pattern matches, done once when it's first read
+     */
+    @Benchmark
+    public Set<String> resolvePattern() {
+        return resolve(PATTERNS[0]);
+    }
+
+    /**
+     * Counting a pattern from the ids it's known to match, done once after
+     * resolving it
+     */
+    @Benchmark
+    public long resolvedScan() {
+        Set<String> matched = resolvedPatterns[0];
+        long count = 0;
+        for (int i = 0; i < keys; i++) {
+            for (String id : identifiers[i]) {
+                if (matched.contains(id)) {
+                    count += amounts[i];
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A single stack changing, what the index does for every storage change
+     * while emitters read a few wildcard patterns
+     */
+    @Benchmark
+    public long stackChange() {
+        int key = nextKey;
+        nextKey = (nextKey + 1) % keys;
+        String[] ids = identifiers[key];
+        for (String id : ids) {
+            identifierCounts.addTo(id, 1);
+        }
+        for (int i = 0; i < PATTERNS.length; i++) {
+            Set<String> matched = resolvedPatterns[i];
+            for (String id : ids) {
+                if (matched.contains(id)) {
+                    patternCounts[i]++;
+                    break;
+                }
+            }
+        }
+        return patternCounts[0];
+    }
+
+    private Set<String> resolve(String pattern) {
+        WildcardPattern wildcard = WildcardPattern.compile(pattern);
+        Set<String> matched = new ObjectOpenHashSet<>();
+        for (String id : knownIdentifiers) {
+            if (wildcard.matches(id)) {
+                matched.add(id);
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.parts.p2p.multi;
+
+import static org.mockito.Mockito.mockStatic;
+
+import appeng.api.config.PowerUnits;
+import appeng.api.networking.ticking.TickRateModulation;
+import com.gregtechceu.gtceu.api.capability.IEnergyContainer;
+import com.gregtechceu.gtceu.api.capability.compat.FeCompat;
+import net.minecraft.core.Direction;
+import org.mockito.MockedStatic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks an EU multi P2P tunnel's distribution, one input sending an amp
+ * for every output and the tunnel ticking them out
+ *
+ * GregTech's config isn't loaded, so its FE ratio is mocked. Static mocks only
+ * apply to the thread that made them, which JMH also runs the benchmark on
+ * with a single thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EUMultiP2PBenchmark {
+  private static final long VOLTAGE = 32;
+
+  @Param({ "1", "8", "64", "512" })
+  public int outputs;
+
+  private EUMultiP2PTunnel tunnel;
+  private IEnergyContainer input;
+  private MockedStatic<FeCompat> feCompat;
+
+  @Setup
+  public void setUp() {
+    MockTunnels.bootstrap();
+    this.feCompat = mockStatic(FeCompat.class);
+    this.feCompat.when(() -> FeCompat.ratio(false)).thenReturn(4);
+    this.tunnel = new EUMultiP2PTunnel((short) 1, MockTunnels.grid()) {
+      @Override
+      protected void deductEnergyCost(double energyTransported,
+        PowerUnits typeTransported) {}
+    };
+    IEnergyContainer neighbor = new SinkContainer();
+    for (int i = 0; i < outputs; i++) {
+      this.tunnel.outputs
+        .add(this.tunnel.new Logic(
+          MockTunnels.part(EUMultiP2PTunnel.Part.class, true, neighbor)));
+    }
+    this.input = this.tunnel.inputHandler;
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.feCompat.close();
+  }
+
+  @Benchmark
+  public TickRateModulation tick() {
+    this.input.acceptEnergyFromNetwork(Direction.SOUTH, VOLTAGE, outputs);
+    return this.tunnel.tick();
+  }
+
+  /**
+   * Container that voids an amp per call
+   */
+  private static class SinkContainer implements IEnergyContainer {
+    @Override
+    public long acceptEnergyFromNetwork(Direction side, long voltage,
+      long amperage) {
+      return Math.min(amperage, 1);
+    }
+
+    @Override
+    public boolean inputsEnergy(Direction side) {
+      return true;
+    }
+
+    @Override
+    public long changeEnergy(long differenceAmount) {
+      return 0;
+    }
+
+    @Override
+    public long getEnergyStored() { return 0; }
+
+    @Override
+    public long getEnergyCapacity() { return VOLTAGE; }
+
+    @Override
+    public long getInputAmperage() { return 1; }
+
+    @Override
+    public long getInputVoltage() { return VOLTAGE; }
+  }
+}
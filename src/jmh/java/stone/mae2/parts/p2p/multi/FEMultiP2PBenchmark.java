@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.parts.p2p.multi;
+
+import appeng.api.config.PowerUnits;
+import appeng.api.networking.ticking.TickRateModulation;
+import net.minecraftforge.energy.IEnergyStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a FE multi P2P tunnel's distribution, one input filling the
+ * buffer with enough for every output and the tunnel ticking it out
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FEMultiP2PBenchmark {
+  // what each output's neighbor takes per tick
+  private static final int RATE = 1_000;
+
+  @Param({ "1", "8", "64", "512" })
+  public int outputs;
+
+  private FEMultiP2PTunnel tunnel;
+  private IEnergyStorage input;
+
+  @Setup
+  public void setUp() {
+    MockTunnels.bootstrap();
+    this.tunnel = new FEMultiP2PTunnel((short) 1, MockTunnels.grid()) {
+      @Override
+      protected void deductEnergyCost(double energyTransported,
+        PowerUnits typeTransported) {}
+    };
+    IEnergyStorage neighbor = new SinkStorage();
+    for (int i = 0; i < outputs; i++) {
+      this.tunnel.outputs
+        .add(this.tunnel.new Logic(
+          MockTunnels.part(FEMultiP2PTunnel.Part.class, true, neighbor)));
+    }
+    this.input = this.tunnel.inputHandler;
+  }
+
+  @Benchmark
+  public TickRateModulation tick() {
+    this.input.receiveEnergy(RATE * outputs, false);
+    return this.tunnel.tick();
+  }
+
+  /**
+   * Storage that voids up to {@link #RATE} per call
+   */
+  private static class SinkStorage implements IEnergyStorage {
+    @Override
+    public int receiveEnergy(int maxReceive, boolean simulate) {
+      return Math.min(maxReceive, RATE);
+    }
+
+    @Override
+    public int extractEnergy(int maxExtract, boolean simulate) {
+      return 0;
+    }
+
+    @Override
+    public int getEnergyStored() { return 0; }
+
+    @Override
+    public int getMaxEnergyStored() { return RATE; }
+
+    @Override
+    public boolean canExtract() {
+      return false;
+    }
+
+    @Override
+    public boolean canReceive() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.parts.p2p.multi;
+
+import appeng.api.networking.ticking.TickRateModulation;
+import appeng.api.stacks.AEKeyType;
+import net.minecraft.world.level.material.Fluids;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks filling a fluid multi P2P tunnel's input, which fans the fluid
+ * out to every output within the fill
+ *
+ * Like {@link ItemMultiP2PBenchmark}, full outputs stay backed off from after
+ * their first rejection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FluidMultiP2PBenchmark {
+  // pumps feeding the tunnel, each filling once a tick
+  private static final int PUMPS = 20;
+
+  @Param({ "1", "8", "64", "512" })
+  public int outputs;
+
+  @Param({ "1", "1000" })
+  public int amount;
+
+  @Param({ "false", "true" })
+  public boolean isFull;
+
+  @Param({ "ROUND_ROBIN", "FILL_FIRST", "WEIGHTED" })
+  public DistributionMode mode;
+
+  private FluidStack fluid;
+  private IFluidHandler input;
+  private FluidMultiP2PTunnel bufferedTunnel;
+  private IFluidHandler bufferedInput;
+
+  @Setup
+  public void setUp() {
+    MockTunnels.bootstrap();
+    this.input = createTunnel().inputHandler;
+    this.bufferedTunnel = createTunnel();
+    this.bufferedTunnel.setBuffered(true);
+    this.bufferedInput = this.bufferedTunnel.inputHandler;
+    this.fluid = new FluidStack(Fluids.WATER, amount);
+  }
+
+  private FluidMultiP2PTunnel createTunnel() {
+    FluidMultiP2PTunnel tunnel = new FluidMultiP2PTunnel((short) 1,
+      MockTunnels.grid()) {
+      @Override
+      protected void deductTransportCost(long amountTransported,
+        AEKeyType typeTransported) {}
+    };
+    IFluidHandler neighbor = new SinkHandler(isFull);
+    for (int i = 0; i < outputs; i++) {
+      tunnel.outputs
+        .add(tunnel.new Logic(
+          MockTunnels.part(FluidMultiP2PTunnel.Part.class, true, neighbor)));
+    }
+    tunnel.setDistributionMode(mode);
+    return tunnel;
+  }
+
+  @Benchmark
+  public int fill() {
+    return this.input.fill(this.fluid, IFluidHandler.FluidAction.EXECUTE);
+  }
+
+  @Benchmark
+  public int simulate() {
+    return this.input.fill(this.fluid, IFluidHandler.FluidAction.SIMULATE);
+  }
+
+  /**
+   * A tick of fills from every pump, straight through
+   */
+  @Benchmark
+  public int pumpTick() {
+    int filled = 0;
+    for (int i = 0; i < PUMPS; i++) {
+      filled += this.input.fill(this.fluid, IFluidHandler.FluidAction.EXECUTE);
+    }
+    return filled;
+  }
+
+  /**
+   * The same tick of fills into the buffer, then distributing it
+   */
+  @Benchmark
+  public TickRateModulation bufferedPumpTick() {
+    for (int i = 0; i < PUMPS; i++) {
+      this.bufferedInput.fill(this.fluid, IFluidHandler.FluidAction.EXECUTE);
+    }
+    return this.bufferedTunnel.tick();
+  }
+
+  /**
+   * A single tank that voids what it's given, or refuses everything
+   */
+  private static class SinkHandler implements IFluidHandler {
+    private final boolean isFull;
+
+    SinkHandler(boolean isFull) {
+      this.isFull = isFull;
+    }
+
+    @Override
+    public int getTanks() {
+      return 1;
+    }
+
+    @Override
+    public FluidStack getFluidInTank(int tank) {
+      return FluidStack.EMPTY;
+    }
+
+    @Override
+    public int getTankCapacity(int tank) {
+      return 16_000;
+    }
+
+    @Override
+    public boolean isFluidValid(int tank, FluidStack stack) {
+      return !this.isFull;
+    }
+
+    @Override
+    public int fill(FluidStack resource, FluidAction action) {
+      return this.isFull ? 0 : resource.getAmount();
+    }
+
+    @Override
+    public FluidStack drain(FluidStack resource, FluidAction action) {
+      return FluidStack.EMPTY;
+    }
+
+    @Override
+    public FluidStack drain(int maxDrain, FluidAction action) {
+      return FluidStack.EMPTY;
+    }
+  }
+}
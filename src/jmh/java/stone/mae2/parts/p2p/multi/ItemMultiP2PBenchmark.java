@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.parts.p2p.multi;
+
+import appeng.api.networking.ticking.TickRateModulation;
+import appeng.api.stacks.AEKeyType;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraftforge.items.IItemHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks inserting into an item multi P2P tunnel's input, which fans the
+ * stack out to every output within the insert
+ *
+ * Outputs face inventories that either take everything or are full, the
+ * common steady state of a machine array. Parts have no level, so game time
+ * never moves and full outputs stay backed off from after their first
+ * rejection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemMultiP2PBenchmark {
+  // inserts a pipe makes in a tick, each a single item
+  private static final int PIPE_INSERTS = 20;
+
+  @Param({ "1", "8", "64", "512" })
+  public int outputs;
+
+  @Param({ "1", "64" })
+  public int count;
+
+  @Param({ "false", "true" })
+  public boolean isFull;
+
+  @Param({ "ROUND_ROBIN", "FILL_FIRST", "WEIGHTED" })
+  public DistributionMode mode;
+
+  private ItemStack stack;
+  private ItemStack single;
+  private IItemHandler input;
+  private ItemMultiP2PTunnel bufferedTunnel;
+  private IItemHandler bufferedInput;
+
+  @Setup
+  public void setUp() {
+    MockTunnels.bootstrap();
+    this.input = createTunnel().inputHandler;
+    this.bufferedTunnel = createTunnel();
+    this.bufferedTunnel.setBuffered(true);
+    this.bufferedInput = this.bufferedTunnel.inputHandler;
+    this.stack = new ItemStack(Items.IRON_INGOT, count);
+    this.single = new ItemStack(Items.IRON_INGOT);
+  }
+
+  private ItemMultiP2PTunnel createTunnel() {
+    ItemMultiP2PTunnel tunnel = new ItemMultiP2PTunnel((short) 1,
+      MockTunnels.grid()) {
+      @Override
+      protected void deductTransportCost(long amountTransported,
+        AEKeyType typeTransported) {}
+    };
+    IItemHandler neighbor = new SinkHandler(isFull);
+    for (int i = 0; i < outputs; i++) {
+      tunnel.outputs
+        .add(tunnel.new Logic(
+          MockTunnels.part(ItemMultiP2PTunnel.Part.class, true, neighbor)));
+    }
+    tunnel.setDistributionMode(mode);
+    return tunnel;
+  }
+
+  @Benchmark
+  public ItemStack insert() {
+    return this.input.insertItem(0, this.stack, false);
+  }
+
+  /**
+   * A tick of single item inserts from a pipe, straight through
+   */
+  @Benchmark
+  public int pipeTick() {
+    int inserted = 0;
+    for (int i = 0; i < PIPE_INSERTS; i++) {
+      inserted += 1 - this.input.insertItem(0, this.single, false).getCount();
+    }
+    return inserted;
+  }
+
+  /**
+   * The same tick of inserts into the buffer, then distributing it
+   */
+  @Benchmark
+  public TickRateModulation bufferedPipeTick() {
+    for (int i = 0; i < PIPE_INSERTS; i++) {
+      this.bufferedInput.insertItem(0, this.single, false);
+    }
+    return this.bufferedTunnel.tick();
+  }
+
+  /**
+   * What hoppers and pipes do before most inserts
+   */
+  @Benchmark
+  public ItemStack simulate() {
+    return this.input.insertItem(0, this.stack, true);
+  }
+
+  /**
+   * A single slot inventory that voids what it's given, or refuses everything
+   */
+  private static class SinkHandler implements IItemHandler {
+    private final boolean isFull;
+
+    SinkHandler(boolean isFull) {
+      this.isFull = isFull;
+    }
+
+    @Override
+    public int getSlots() {
+      return 1;
+    }
+
+    @Override
+    public ItemStack getStackInSlot(int slot) {
+      return ItemStack.EMPTY;
+    }
+
+    @Override
+    public ItemStack insertItem(int slot, ItemStack stack, boolean simulate) {
+      return this.isFull ? stack : ItemStack.EMPTY;
+    }
+
+    @Override
+    public ItemStack extractItem(int slot, int amount, boolean simulate) {
+      return ItemStack.EMPTY;
+    }
+
+    @Override
+    public int getSlotLimit(int slot) {
+      return 64;
+    }
+
+    @Override
+    public boolean isItemValid(int slot, ItemStack stack) {
+      return !this.isFull;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.parts.p2p.multi;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import appeng.api.networking.IGrid;
+import appeng.api.parts.IPartHost;
+import appeng.api.util.DimensionalBlockPos;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.util.LazyOptional;
+
+import stone.mae2.MAE2;
+import stone.mae2.bootstrap.MAE2Config;
+import stone.mae2.bootstrap.MAE2Config.TickRates.TickRate;
+import stone.mae2.me.service.MultiP2PService;
+
+/**
+ * Builds multi P2P tunnels for benchmarks without a running server
+ *
+ * Parts are stub only mocks facing a mocked block entity, which hands out
+ * whatever in memory handler the benchmark wants as its neighbor. Only the
+ * couple of part calls a tunnel makes per output end up in the measurement,
+ * the capability itself is resolved once and cached by the tunnel's logic.
+ */
+final class MockTunnels {
+  private static boolean isBootstrapped;
+
+  private MockTunnels() {}
+
+  /**
+   * Registers vanilla's items and fluids, needed for any stack, and loads a
+   * default config
+   */
+  static synchronized void bootstrap() {
+    if (isBootstrapped)
+      return;
+    SharedConstants.tryDetectVersion();
+    Bootstrap.bootStrap();
+    TickRate rate = new TickRate(1, 20);
+    MAE2.CONFIG = new MAE2Config(new MAE2Config.Client(1),
+      new MAE2Config.Parts(true, false, 0.05,
+        new MAE2Config.TickRates(rate, rate, rate, rate, rate)));
+    isBootstrapped = true;
+  }
+
+  /**
+   * @return a grid with a P2P service that has nothing to schedule and
+   *         always has its tax paid
+   */
+  static IGrid grid() {
+    IGrid grid = mock(IGrid.class, withSettings().stubOnly());
+    MultiP2PService service = mock(MultiP2PService.class,
+      withSettings().stubOnly());
+    // mocks skip field initializers
+    service.taxSatisfied = true;
+    when(grid.getService(MultiP2PService.class)).thenReturn(service);
+    return grid;
+  }
+
+  /**
+   * @param type     the part class to mock
+   * @param neighbor handler of the block the part is facing
+   * @return an active part facing north at the origin
+   */
+  static <P extends MultiP2PTunnel.Part<?, ?, P>> P part(Class<P> type,
+    boolean isOutput, Object neighbor) {
+    BlockEntity adjacent = mock(BlockEntity.class, withSettings().stubOnly());
+    doReturn(LazyOptional.of(() -> neighbor))
+      .when(adjacent)
+      .getCapability(any(), any());
+    Level level = mock(Level.class, withSettings().stubOnly());
+    when(level.getBlockEntity(any())).thenReturn(adjacent);
+    BlockEntity self = mock(BlockEntity.class, withSettings().stubOnly());
+    when(self.getLevel()).thenReturn(level);
+    DimensionalBlockPos location = mock(DimensionalBlockPos.class,
+      withSettings().stubOnly());
+    when(location.getPos()).thenReturn(BlockPos.ZERO);
+    IPartHost host = mock(IPartHost.class, withSettings().stubOnly());
+    when(host.getLocation()).thenReturn(location);
+
+    P part = mock(type, withSettings().stubOnly());
+    when(part.isActive()).thenReturn(true);
+    when(part.isOutput()).thenReturn(isOutput);
+    when(part.getSide()).thenReturn(Direction.NORTH);
+    when(part.getBlockEntity()).thenReturn(self);
+    when(part.getHost()).thenReturn(host);
+    return part;
+  }
+}
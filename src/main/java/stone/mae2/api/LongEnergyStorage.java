@@ -0,0 +1,18 @@
+package stone.mae2.api;
+
+import net.minecraftforge.energy.IEnergyStorage;
+
+/**
+ * FE storage that can take more than an int's worth at once
+ *
+ * Anything pushing FE can check for this to move its whole amount in one call
+ * instead of splitting it into int sized ones.
+ */
+public interface LongEnergyStorage extends IEnergyStorage {
+  /**
+   * Same as {@link #receiveEnergy(int, boolean)}, but with longs
+   *
+   * @return how much was (or would have been, if simulated) received
+   */
+  long receiveEnergyLong(long maxReceive, boolean simulate);
+}
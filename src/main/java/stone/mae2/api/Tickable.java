@@ -22,6 +22,7 @@ public interface Tickable {
     private final Tickable tickable;
     private long nextTick;
     private int updateRate;
+    private boolean isSleeping;
 
     private static final int FASTER_SPEED_UP = 1;
     private static final int SLOWER_SPEED_DOWN = 2;
@@ -32,6 +33,7 @@ public interface Tickable {
       this.tickable = tickable;
       this.nextTick = currentTick + request.initialTickRate();
       this.updateRate = request.initialTickRate();
+      this.isSleeping = request.isSleeping();
     }
 
     @Override
@@ -65,8 +67,31 @@ public interface Tickable {
       this.nextTick += this.updateRate;
     }
 
+    public void sleep() {
+      this.isSleeping = true;
+    }
+
+    /**
+     * Wakes this entry up, scheduling it for the tick after the current one at
+     * its fastest rate
+     *
+     * @return if the entry was actually sleeping
+     */
+    public boolean wake(long currentTick) {
+      if (!this.isSleeping)
+        return false;
+      this.isSleeping = false;
+      this.updateRate = this.request.minTickRate();
+      this.nextTick = currentTick + 1;
+      return true;
+    }
+
+    public boolean isSleeping() { return this.isSleeping; }
+
     public long getNextTick() { return this.nextTick; }
 
+    public int getUpdateRate() { return this.updateRate; }
+
     public Tickable getTickable() { return this.tickable; }
   }
 }
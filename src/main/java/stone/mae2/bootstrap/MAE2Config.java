@@ -53,7 +53,9 @@ public record MAE2Config(Client client, Parts parts) {
         new TickRates
         (new TickRate(FE_MIN_RATE.get(), FE_MAX_RATE.get()),
          new TickRate(EU_MIN_RATE.get(), EU_MAX_RATE.get()),
-         new TickRate(PATTERN_MIN_RATE.get(), PATTERN_MAX_RATE.get()))));
+         new TickRate(PATTERN_MIN_RATE.get(), PATTERN_MAX_RATE.get()),
+         new TickRate(ITEM_MIN_RATE.get(), ITEM_MAX_RATE.get()),
+         new TickRate(FLUID_MIN_RATE.get(), FLUID_MAX_RATE.get()))));
   }
 
   // load in things that require a restart here (ie item registation or p2p
@@ -73,7 +75,9 @@ public record MAE2Config(Client client, Parts parts) {
                       double EUP2PNerfFactor, TickRates rates) {}
 
   public record TickRates(TickRate FEMultiP2PTunnel, TickRate EUMultiP2PTunnel,
-                          TickRate PatternP2PTunnel) {
+                          TickRate PatternP2PTunnel,
+                          TickRate ItemMultiP2PTunnel,
+                          TickRate FluidMultiP2PTunnel) {
       public record TickRate(int minRate, int maxRate) {}
   }
 
@@ -95,6 +99,12 @@ public record MAE2Config(Client client, Parts parts) {
   private static final ForgeConfigSpec.IntValue PATTERN_MIN_RATE;
   private static final ForgeConfigSpec.IntValue PATTERN_MAX_RATE;
 
+  private static final ForgeConfigSpec.IntValue ITEM_MIN_RATE;
+  private static final ForgeConfigSpec.IntValue ITEM_MAX_RATE;
+
+  private static final ForgeConfigSpec.IntValue FLUID_MIN_RATE;
+  private static final ForgeConfigSpec.IntValue FLUID_MAX_RATE;
+
   public static final IConfigSpec<?> CLIENT;
   public static final IConfigSpec<?> COMMON;
 
@@ -166,6 +176,28 @@ public record MAE2Config(Client client, Parts parts) {
       .translation(TransHelper.CONFIG.toKey("patternMaxRate"))
       .defineInRange("maxRate", 120, 1, Integer.MAX_VALUE);
     common.pop();
+
+    common.push("Item Multi P2P");
+    ITEM_MIN_RATE = common
+      .comment("Min tick rate for buffered Item Multi P2P Tunnels")
+      .translation(TransHelper.CONFIG.toKey("itemMinRate"))
+      .defineInRange("minRate", 1, 1, Integer.MAX_VALUE);
+    ITEM_MAX_RATE = common
+      .comment("Max tick rate for buffered Item Multi P2P Tunnels")
+      .translation(TransHelper.CONFIG.toKey("itemMaxRate"))
+      .defineInRange("maxRate", 20, 1, Integer.MAX_VALUE);
+    common.pop();
+
+    common.push("Fluid Multi P2P");
+    FLUID_MIN_RATE = common
+      .comment("Min tick rate for buffered Fluid Multi P2P Tunnels")
+      .translation(TransHelper.CONFIG.toKey("fluidMinRate"))
+      .defineInRange("minRate", 1, 1, Integer.MAX_VALUE);
+    FLUID_MAX_RATE = common
+      .comment("Max tick rate for buffered Fluid Multi P2P Tunnels")
+      .translation(TransHelper.CONFIG.toKey("fluidMaxRate"))
+      .defineInRange("maxRate", 20, 1, Integer.MAX_VALUE);
+    common.pop();
     common.pop();
 
     CLIENT = client.build();
@@ -3,14 +3,19 @@ package stone.mae2.bootstrap;
 import appeng.api.integrations.igtooltip.PartTooltips;
 import appeng.api.networking.GridServices;
 import net.minecraft.data.DataGenerator;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.data.event.GatherDataEvent;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.ModList;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import stone.mae2.api.features.MultiP2PTunnelAttunement;
+import stone.mae2.command.PerfCommand;
 import stone.mae2.core.datagen.MAE2RecipeProvider;
 import stone.mae2.integration.GregTechIntegration;
 import stone.mae2.integration.MultiP2PStateDataProvider;
+import stone.mae2.me.service.InventoryIndexService;
 import stone.mae2.me.service.MultiP2PService;
 import stone.mae2.parts.p2p.multi.MultiP2PTunnel;
 
@@ -27,9 +32,18 @@ public class ServerProxy implements Proxy {
 
     bus.addListener((FMLCommonSetupEvent event) -> {
       GridServices.register(MultiP2PService.class, MultiP2PService.class);
+      GridServices
+          .register(InventoryIndexService.class, InventoryIndexService.class);
       MultiP2PTunnelAttunement.registerStockAttunements();
     });
 
+    MinecraftForge.EVENT_BUS.addListener((RegisterCommandsEvent event) -> {
+      PerfCommand.register(event.getDispatcher());
+    });
+    MinecraftForge.EVENT_BUS.addListener((TagsUpdatedEvent event) -> {
+      InventoryIndexService.onTagsUpdated();
+    });
+
     bus.addListener((GatherDataEvent event) -> {
       DataGenerator gen = event.getGenerator();
       DataGenerator.PackGenerator pack = gen.getVanillaPack(true);
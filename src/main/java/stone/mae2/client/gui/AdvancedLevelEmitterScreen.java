@@ -3,6 +3,7 @@ package stone.mae2.client.gui;
 import appeng.api.config.RedstoneMode;
 import appeng.api.config.Settings;
 import appeng.client.gui.implementations.UpgradeableScreen;
+import appeng.client.gui.style.PaletteColor;
 import appeng.client.gui.style.ScreenStyle;
 import appeng.client.gui.widgets.AETextField;
 import appeng.client.gui.widgets.ServerSettingToggleButton;
@@ -10,8 +11,13 @@ import appeng.client.gui.widgets.SettingToggleButton;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.player.Inventory;
+import stone.mae2.logic.expression.CompiledExpression;
+import stone.mae2.logic.expression.ExpressionParser;
+import stone.mae2.logic.expression.Tokenizer;
 import stone.mae2.menu.AdvancedLevelEmitterMenu;
 
+import java.util.List;
+
 public class AdvancedLevelEmitterScreen extends UpgradeableScreen<AdvancedLevelEmitterMenu> {
 
     private final AETextField expressionField;
@@ -28,7 +34,32 @@ public class AdvancedLevelEmitterScreen extends UpgradeableScreen<AdvancedLevelE
         this.expressionField = widgets.addTextField("expressionField");
         this.expressionField.setMaxLength(256);
         this.expressionField.setValue(menu.getExpression());
-        this.expressionField.setResponder(menu::setExpression);
+        this.expressionField.setResponder(text -> {
+            menu.setExpression(text);
+            validateExpression(text);
+        });
+        validateExpression(menu.getExpression());
+    }
+
+    /**
+     * Parses the expression client side so syntax and type errors show up while typing
+     */
+    private void validateExpression(String text) {
+        String error = null;
+        if (!text.isBlank()) {
+            try {
+                CompiledExpression.compile(new ExpressionParser(new Tokenizer(text).tokenize()).parse());
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+            }
+        }
+        if (error == null) {
+            this.expressionField.setTextColor(style.getColor(PaletteColor.TEXTFIELD_TEXT).toARGB());
+            this.expressionField.setTooltipMessage(List.of());
+        } else {
+            this.expressionField.setTextColor(style.getColor(PaletteColor.TEXTFIELD_ERROR).toARGB());
+            this.expressionField.setTooltipMessage(List.of(Component.literal(error)));
+        }
     }
 
     @Override
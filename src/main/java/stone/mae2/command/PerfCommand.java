@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.command;
+
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridNode;
+import appeng.api.parts.IPart;
+import appeng.hooks.ticking.TickHandler;
+import appeng.util.Platform;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.level.block.entity.BlockEntity;
+
+import stone.mae2.MAE2;
+import stone.mae2.api.Tickable;
+import stone.mae2.me.service.MultiP2PService;
+import stone.mae2.me.service.TunnelStats;
+import stone.mae2.parts.p2p.multi.MultiP2PTunnel;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@code /mae2 perf} for finding which multi P2P tunnels are eating server
+ * time
+ *
+ * {@code start} begins a fresh profiling window, {@code stop} ends it, and
+ * {@code dump [count]} lists the most expensive tunnels of every grid.
+ */
+public final class PerfCommand {
+  private static final int DEFAULT_COUNT = 5;
+
+  private static int startTick;
+  private static int stopTick = -1;
+
+  private PerfCommand() {}
+
+  public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+    dispatcher
+      .register(Commands
+        .literal(MAE2.MODID)
+        .then(Commands
+          .literal("perf")
+          .requires(source -> source.hasPermission(2))
+          .then(Commands.literal("start").executes(ctx -> {
+            startTick = ctx.getSource().getServer().getTickCount();
+            stopTick = -1;
+            TunnelStats.start();
+            ctx
+              .getSource()
+              .sendSuccess(
+                () -> Component.literal("Started profiling multi P2P tunnels"),
+                true);
+            return 1;
+          }))
+          .then(Commands.literal("stop").executes(ctx -> {
+            if (TunnelStats.isEnabled()) {
+              stopTick = ctx.getSource().getServer().getTickCount();
+              TunnelStats.stop();
+            }
+            ctx
+              .getSource()
+              .sendSuccess(
+                () -> Component.literal("Stopped profiling multi P2P tunnels"),
+                true);
+            return 1;
+          }))
+          .then(Commands
+            .literal("dump")
+            .executes(ctx -> dump(ctx.getSource(), DEFAULT_COUNT))
+            .then(Commands
+              .argument("count", IntegerArgumentType.integer(1))
+              .executes(ctx -> dump(ctx.getSource(),
+                IntegerArgumentType.getInteger(ctx, "count")))))));
+  }
+
+  private static int dump(CommandSourceStack source, int count) {
+    int endTick = stopTick >= 0 ? stopTick
+      : source.getServer().getTickCount();
+    // average over server ticks, not tunnel ticks, since that's what players
+    // feel
+    int window = Math.max(endTick - startTick, 1);
+    source
+      .sendSuccess(() -> Component
+        .literal("Multi P2P tunnels over the last " + window + " ticks"
+          + (TunnelStats.isEnabled() ? "" : " (profiling is stopped)")),
+        false);
+
+    int grids = 0;
+    for (IGrid grid : TickHandler.instance().getGridList()) {
+      MultiP2PService service = MultiP2PService.get(grid);
+      List<MultiP2PTunnel<?, ?, ?>> tunnels = service.getTunnels();
+      tunnels.removeIf(tunnel -> !tunnel.getStats().isCurrent());
+      if (tunnels.isEmpty())
+        continue;
+      grids++;
+      tunnels
+        .sort(Comparator
+          .comparingLong((MultiP2PTunnel<?, ?, ?> tunnel) -> tunnel
+            .getStats()
+            .getTotalNanos())
+          .reversed());
+
+      String header = "Grid at " + describe(grid.getPivot()) + ": "
+        + tunnels.size() + " active tunnels, "
+        + service.getScheduledCount() + " scheduled, "
+        + service.getEntriesFiredLastTick() + " fired last tick";
+      source.sendSuccess(() -> Component.literal(header), false);
+
+      for (int i = 0; i < Math.min(count, tunnels.size()); i++) {
+        String line = describe(service, tunnels.get(i), window);
+        source.sendSuccess(() -> Component.literal(line), false);
+      }
+    }
+
+    if (grids == 0) {
+      source
+        .sendSuccess(() -> Component.literal("Nothing recorded"), false);
+    }
+    return grids;
+  }
+
+  private static String describe(MultiP2PService service,
+    MultiP2PTunnel<?, ?, ?> tunnel, int window) {
+    TunnelStats stats = tunnel.getStats();
+    StringBuilder line = new StringBuilder("  ")
+      .append(tunnel.getClass().getSimpleName())
+      .append(' ')
+      .append(Platform.p2p().toHexString(tunnel.getFrequency()));
+    if (tunnel.hasCustomName()) {
+      line.append(" \"").append(tunnel.getCustomName().getString()).append('"');
+    }
+    line
+      .append(": ")
+      .append(formatMillis(stats.getTotalNanos() / (double) window))
+      .append(" ms/t");
+    if (tunnel instanceof Tickable tickable) {
+      int rate = service.getTickRate(tickable);
+      line
+        .append(", ")
+        .append(stats.getTicks())
+        .append(" ticks (")
+        .append(rate == 0 ? "sleeping" : "every " + rate + "t")
+        .append(')');
+    }
+    long calls = stats.getHandlerCalls();
+    line.append(", ").append(calls).append(" handler calls");
+    if (calls > 0) {
+      line
+        .append(" (")
+        .append(formatMillis(stats.getHandlerNanos() / (double) calls))
+        .append(" ms avg)");
+    }
+    line.append(", ").append(stats.getTransferred()).append(" transferred");
+    return line.toString();
+  }
+
+  private static String describe(IGridNode pivot) {
+    if (pivot == null)
+      return "unknown";
+    BlockEntity be = null;
+    if (pivot.getOwner() instanceof BlockEntity owner) {
+      be = owner;
+    } else if (pivot.getOwner() instanceof IPart part) {
+      be = part.getBlockEntity();
+    }
+    if (be == null)
+      return pivot.getLevel().dimension().location().toString();
+    return pivot.getLevel().dimension().location() + " "
+      + be.getBlockPos().toShortString();
+  }
+
+  private static String formatMillis(double nanos) {
+    return String.format("%.4f", nanos / 1_000_000);
+  }
+}
@@ -0,0 +1,356 @@
+package stone.mae2.gametests;
+
+import appeng.api.parts.IPartItem;
+import appeng.api.parts.PartHelper;
+import appeng.api.util.AEColor;
+import appeng.core.definitions.AEBlocks;
+import appeng.core.definitions.AEParts;
+import appeng.util.SettingsFrom;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.material.Fluids;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidType;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+import net.minecraftforge.fluids.capability.templates.EmptyFluidHandler;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.wrapper.EmptyHandler;
+
+import stone.mae2.MAE2;
+import stone.mae2.bootstrap.MAE2Items;
+import stone.mae2.me.service.MultiP2PService;
+import stone.mae2.parts.p2p.multi.DistributingMultiP2PTunnel;
+import stone.mae2.parts.p2p.multi.DistributionMode;
+import stone.mae2.parts.p2p.multi.FluidMultiP2PTunnel;
+import stone.mae2.parts.p2p.multi.ItemMultiP2PTunnel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for how distributing multi p2ps split things up between their outputs
+ */
+@GameTestHolder(MAE2.MODID)
+public class MultiP2P {
+  private static final BlockPos CABLE = new BlockPos(2, 1, 2);
+  private static final Direction INPUT = Direction.WEST;
+  // outputs get these sides in order, which is also the order of priority for
+  // fill first, highest first
+  private static final Direction[] OUTPUTS = { Direction.NORTH,
+      Direction.SOUTH, Direction.EAST };
+  private static final int BUCKET = FluidType.BUCKET_VOLUME;
+
+  private record Tunnel<P extends DistributingMultiP2PTunnel.Part<?, ?, ?, ?, ?>>(
+    P input, List<P> outputs) {
+  }
+
+  /**
+   * Puts a cable powered by a creative cell in the middle, with an input on
+   * one side and outputs into the given blocks on the others
+   */
+  private static <P extends DistributingMultiP2PTunnel.Part<?, ?, ?, ?, ?>> Tunnel<P> build(
+    GameTestHelper helper, IPartItem<P> partItem, Block... targets) {
+    helper.setBlock(CABLE.above(), AEBlocks.CREATIVE_ENERGY_CELL.block());
+    BlockPos cable = helper.absolutePos(CABLE);
+    PartHelper
+      .setPart(helper.getLevel(), cable, null, null,
+        AEParts.GLASS_CABLE.item(AEColor.TRANSPARENT));
+    P input = PartHelper
+      .setPart(helper.getLevel(), cable, INPUT, null, partItem);
+    List<P> outputs = new ArrayList<>();
+    for (int i = 0; i < targets.length; i++) {
+      helper.setBlock(CABLE.relative(OUTPUTS[i]), targets[i]);
+      outputs
+        .add(PartHelper
+          .setPart(helper.getLevel(), cable, OUTPUTS[i], null, partItem));
+    }
+    return new Tunnel<>(input, outputs);
+  }
+
+  private static Tunnel<ItemMultiP2PTunnel.Part> buildItem(
+    GameTestHelper helper, Block... targets) {
+    return build(helper, MAE2Items.ITEM_MULTI_P2P_TUNNEL.get(), targets);
+  }
+
+  private static void assertActive(GameTestHelper helper, Tunnel<?> tunnel) {
+    helper
+      .assertTrue(tunnel.input().getMainNode().isActive(),
+        "input isn't active");
+    for (var output : tunnel.outputs())
+      helper
+        .assertTrue(output.getMainNode().isActive(), "output isn't active");
+  }
+
+  /**
+   * Links up the parts the same way a memory card would
+   */
+  private static void attune(Tunnel<?> tunnel, DistributionMode mode,
+    boolean isBuffered) {
+    CompoundTag settings = new CompoundTag();
+    settings.putShort("p2pFreq", (short) 1);
+    settings.putString("distribution", mode.name());
+    settings.putBoolean("buffered", isBuffered);
+    tunnel
+      .input()
+      .importSettings(SettingsFrom.MEMORY_CARD, settings, null, false);
+    for (var output : tunnel.outputs())
+      output.importSettings(SettingsFrom.MEMORY_CARD, settings, null, true);
+  }
+
+  private static void assertAttuned(GameTestHelper helper, Tunnel<?> tunnel) {
+    var multiTunnel = tunnel.input().getTunnel();
+    helper
+      .assertTrue(multiTunnel != null
+        && multiTunnel.getOutputs().size() == tunnel.outputs().size(),
+        "outputs aren't on the tunnel");
+  }
+
+  private static IItemHandler items(GameTestHelper helper, BlockPos pos,
+    Direction side) {
+    return helper
+      .getBlockEntity(pos)
+      .getCapability(ForgeCapabilities.ITEM_HANDLER, side)
+      .orElse(EmptyHandler.INSTANCE);
+  }
+
+  private static IFluidHandler fluids(GameTestHelper helper, BlockPos pos,
+    Direction side) {
+    return helper
+      .getBlockEntity(pos)
+      .getCapability(ForgeCapabilities.FLUID_HANDLER, side)
+      .orElse(EmptyFluidHandler.INSTANCE);
+  }
+
+  /**
+   * @return what didn't fit
+   */
+  private static ItemStack insert(GameTestHelper helper, ItemStack stack) {
+    return items(helper, CABLE, INPUT).insertItem(0, stack, false);
+  }
+
+  /**
+   * @return how many items the block in front of the output has, as seen from
+   *         the output
+   */
+  private static int count(GameTestHelper helper, Direction output) {
+    IItemHandler handler = items(helper, CABLE.relative(output),
+      output.getOpposite());
+    int count = 0;
+    for (int slot = 0; slot < handler.getSlots(); slot++)
+      count += handler.getStackInSlot(slot).getCount();
+    return count;
+  }
+
+  private static int total(GameTestHelper helper, Tunnel<?> tunnel) {
+    int total = 0;
+    for (var output : tunnel.outputs())
+      total += count(helper, output.getSide());
+    return total;
+  }
+
+  private static int fluidCount(GameTestHelper helper, Direction output) {
+    IFluidHandler handler = fluids(helper, CABLE.relative(output),
+      output.getOpposite());
+    int count = 0;
+    for (int tank = 0; tank < handler.getTanks(); tank++)
+      count += handler.getFluidInTank(tank).getAmount();
+    return count;
+  }
+
+  private static int fluidTotal(GameTestHelper helper, Tunnel<?> tunnel) {
+    int total = 0;
+    for (var output : tunnel.outputs())
+      total += fluidCount(helper, output.getSide());
+    return total;
+  }
+
+  @GameTest(template = "empty")
+  public static void roundRobin(GameTestHelper helper) {
+    var tunnel = buildItem(helper, Blocks.CHEST, Blocks.CHEST, Blocks.CHEST);
+    helper
+      .startSequence()
+      .thenWaitUntil(() -> assertActive(helper, tunnel))
+      .thenExecute(() -> attune(tunnel, DistributionMode.ROUND_ROBIN, false))
+      .thenWaitUntil(() -> assertAttuned(helper, tunnel))
+      .thenExecute(() -> {
+        // the cursor should move on after every insert
+        for (int i = 0; i < OUTPUTS.length; i++)
+          insert(helper, new ItemStack(Items.COBBLESTONE));
+      })
+      .thenExecute(() -> {
+        for (Direction output : OUTPUTS)
+          helper
+            .assertTrue(count(helper, output) == 1,
+              "round robin skipped an output");
+      })
+      .thenSucceed();
+  }
+
+  @GameTest(template = "empty")
+  public static void fillFirst(GameTestHelper helper) {
+    var tunnel = buildItem(helper, Blocks.CHEST, Blocks.CHEST, Blocks.CHEST);
+    helper
+      .startSequence()
+      .thenWaitUntil(() -> assertActive(helper, tunnel))
+      .thenExecute(() -> attune(tunnel, DistributionMode.FILL_FIRST, false))
+      .thenWaitUntil(() -> assertAttuned(helper, tunnel))
+      .thenExecute(() -> {
+        for (int i = 0; i < OUTPUTS.length; i++)
+          tunnel.outputs().get(i).setPriority(OUTPUTS.length - i);
+        insert(helper, new ItemStack(Items.COBBLESTONE, 64));
+      })
+      .thenExecute(() -> {
+        helper
+          .assertTrue(count(helper, OUTPUTS[0]) == 64,
+            "highest priority output wasn't filled first");
+        helper
+          .assertTrue(total(helper, tunnel) == 64,
+            "items went to other outputs");
+      })
+      .thenSucceed();
+  }
+
+  @GameTest(template = "empty")
+  public static void weighted(GameTestHelper helper) {
+    // 27 stacks of room against 5
+    var tunnel = buildItem(helper, Blocks.CHEST, Blocks.HOPPER);
+    helper
+      .startSequence()
+      .thenWaitUntil(() -> assertActive(helper, tunnel))
+      .thenExecute(() -> attune(tunnel, DistributionMode.WEIGHTED, false))
+      .thenWaitUntil(() -> assertAttuned(helper, tunnel))
+      .thenExecute(() -> insert(helper, new ItemStack(Items.COBBLESTONE, 256)))
+      .thenExecute(() -> {
+        helper
+          .assertTrue(count(helper, OUTPUTS[0]) == 256 * 27 / 32,
+            "chest didn't get its share");
+        helper
+          .assertTrue(count(helper, OUTPUTS[1]) == 256 * 5 / 32,
+            "hopper didn't get its share");
+      })
+      .thenSucceed();
+  }
+
+  @GameTest(template = "empty")
+  public static void backOffIsPerResource(GameTestHelper helper) {
+    // furnaces only take fuel from the side
+    var tunnel = buildItem(helper, Blocks.FURNACE, Blocks.CHEST);
+    helper
+      .startSequence()
+      .thenWaitUntil(() -> assertActive(helper, tunnel))
+      .thenExecute(() -> attune(tunnel, DistributionMode.ROUND_ROBIN, false))
+      .thenWaitUntil(() -> assertAttuned(helper, tunnel))
+      .thenExecute(() -> {
+        // the furnace rejects these, so it gets skipped for cobblestone
+        for (int i = 0; i < 2; i++)
+          helper
+            .assertTrue(insert(helper, new ItemStack(Items.COBBLESTONE))
+              .isEmpty(), "cobblestone didn't go to the chest");
+        // but not for coal, so round robin still gets one to it
+        for (int i = 0; i < 2; i++)
+          insert(helper, new ItemStack(Items.COAL));
+      })
+      .thenExecute(() -> {
+        helper
+          .assertTrue(count(helper, OUTPUTS[0]) == 1,
+            "furnace was skipped for coal");
+        helper.assertTrue(count(helper, OUTPUTS[1]) == 3, "chest lost items");
+      })
+      .thenSucceed();
+  }
+
+  @GameTest(template = "empty")
+  public static void bufferRefusesUnroutable(GameTestHelper helper) {
+    var tunnel = buildItem(helper, Blocks.FURNACE);
+    helper
+      .startSequence()
+      .thenWaitUntil(() -> assertActive(helper, tunnel))
+      .thenExecute(() -> attune(tunnel, DistributionMode.ROUND_ROBIN, true))
+      .thenWaitUntil(() -> assertAttuned(helper, tunnel))
+      .thenExecute(() -> {
+        helper
+          .assertTrue(insert(helper, new ItemStack(Items.COBBLESTONE, 8))
+            .getCount() == 8, "buffered something no output takes");
+        helper
+          .assertTrue(insert(helper, new ItemStack(Items.COAL, 8)).isEmpty(),
+            "didn't buffer something an output takes");
+      })
+      .thenWaitUntil(() -> {
+        helper
+          .assertTrue(count(helper, OUTPUTS[0]) == 8,
+            "buffer wasn't distributed");
+      })
+      .thenSucceed();
+  }
+
+  @GameTest(template = "empty")
+  public static void bufferSurvivesReload(GameTestHelper helper) {
+    var tunnel = buildItem(helper, Blocks.CHEST, Blocks.CHEST, Blocks.CHEST);
+    helper.failIfEver(() -> {
+      helper.assertTrue(total(helper, tunnel) <= 10, "buffer was duplicated");
+    });
+    helper
+      .startSequence()
+      .thenWaitUntil(() -> assertActive(helper, tunnel))
+      .thenExecute(() -> attune(tunnel, DistributionMode.ROUND_ROBIN, true))
+      .thenWaitUntil(() -> assertAttuned(helper, tunnel))
+      .thenExecute(() -> {
+        insert(helper, new ItemStack(Items.COBBLESTONE, 10));
+        // the tunnel hasn't ticked yet, so everything's still buffered. Take
+        // the input off the grid and put it back like a chunk reload would
+        var node = tunnel.input().getMainNode().getNode();
+        var service = MultiP2PService.get(node.getGrid());
+        CompoundTag saved = new CompoundTag();
+        service.removeNode(node);
+        service.saveNodeData(node, saved);
+        helper.assertFalse(saved.isEmpty(), "buffer wasn't saved");
+        service.addNode(node, saved);
+      })
+      .thenWaitUntil(() -> {
+        helper.assertTrue(total(helper, tunnel) == 10, "buffer was lost");
+      })
+      .thenSucceed();
+  }
+
+  @GameTest(template = "empty")
+  public static void fluidBuffer(GameTestHelper helper) {
+    Tunnel<FluidMultiP2PTunnel.Part> tunnel = build(helper,
+      MAE2Items.FLUID_MULTI_P2P_TUNNEL.get(), AEBlocks.SKY_STONE_TANK.block(),
+      AEBlocks.SKY_STONE_TANK.block());
+    helper.failIfEver(() -> {
+      helper
+        .assertTrue(fluidTotal(helper, tunnel) <= 4 * BUCKET,
+          "buffer was duplicated");
+    });
+    helper
+      .startSequence()
+      .thenWaitUntil(() -> assertActive(helper, tunnel))
+      .thenExecute(() -> attune(tunnel, DistributionMode.ROUND_ROBIN, true))
+      .thenWaitUntil(() -> assertAttuned(helper, tunnel))
+      .thenExecute(() -> {
+        int filled = fluids(helper, CABLE, INPUT)
+          .fill(new FluidStack(Fluids.WATER, 4 * BUCKET),
+            IFluidHandler.FluidAction.EXECUTE);
+        helper.assertTrue(filled == 4 * BUCKET, "buffer didn't take it all");
+        helper
+          .assertTrue(fluidTotal(helper, tunnel) == 0,
+            "fluid skipped the buffer");
+      })
+      .thenWaitUntil(() -> {
+        for (var output : tunnel.outputs())
+          helper
+            .assertTrue(fluidCount(helper, output.getSide()) == 2 * BUCKET,
+              "buffer wasn't split between the tanks");
+      })
+      .thenSucceed();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.integration;
+
+import com.gregtechceu.gtceu.api.capability.IEnergyContainer;
+import com.gregtechceu.gtceu.api.capability.compat.FeCompat;
+import com.gregtechceu.gtceu.api.capability.forge.GTCapability;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import org.jetbrains.annotations.Nullable;
+
+import stone.mae2.api.LongEnergyStorage;
+
+/**
+ * Pushes FE into a GregTech energy container as EU, a whole buffer's worth of
+ * amps at once instead of GregTech's int sized FE wrapper
+ *
+ * Only used for blocks that take FE in the first place, so this never gets
+ * around GregTech's own FE conversion settings. Energy goes in at the
+ * container's input voltage, same as GregTech's wrapper, so nothing explodes.
+ */
+public class GregTechLongEnergyStorage implements LongEnergyStorage {
+  private final IEnergyContainer container;
+  private final Direction side;
+
+  private GregTechLongEnergyStorage(IEnergyContainer container,
+    Direction side) {
+    this.container = container;
+    this.side = side;
+  }
+
+  /**
+   * @param side the side of the block being inserted into
+   * @return the block entity's energy container on the side, null if it
+   *         doesn't have one
+   */
+  @Nullable
+  public static LongEnergyStorage find(@Nullable BlockEntity blockEntity,
+    Direction side) {
+    if (blockEntity == null)
+      return null;
+    return blockEntity
+      .getCapability(GTCapability.CAPABILITY_ENERGY_CONTAINER, side)
+      .filter(container -> container.inputsEnergy(side))
+      .<LongEnergyStorage>map(
+        container -> new GregTechLongEnergyStorage(container, side))
+      .orElse(null);
+  }
+
+  @Override
+  public long receiveEnergyLong(long maxReceive, boolean simulate) {
+    long ratio = FeCompat.ratio(true);
+    long voltage = this.container.getInputVoltage();
+    if (maxReceive <= 0 || ratio <= 0 || voltage <= 0)
+      return 0;
+    long eu = maxReceive / ratio;
+    if (simulate)
+      return Math.min(eu, this.container.getEnergyCanBeInserted()) * ratio;
+    long amps = Math.min(eu / voltage, this.container.getInputAmperage());
+    if (amps <= 0)
+      return 0;
+    long accepted = this.container
+      .acceptEnergyFromNetwork(this.side, voltage, amps);
+    return accepted * voltage * ratio;
+  }
+
+  @Override
+  public int receiveEnergy(int maxReceive, boolean simulate) {
+    // cast is okay because it never receives more than it's given
+    return (int) receiveEnergyLong(maxReceive, simulate);
+  }
+
+  @Override
+  public int extractEnergy(int maxExtract, boolean simulate) {
+    return 0;
+  }
+
+  @Override
+  public int getEnergyStored() {
+    return (int) Math
+      .min(this.container.getEnergyStored() * FeCompat.ratio(false),
+        Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int getMaxEnergyStored() {
+    return (int) Math
+      .min(this.container.getEnergyCapacity() * FeCompat.ratio(false),
+        Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean canExtract() {
+    return false;
+  }
+
+  @Override
+  public boolean canReceive() {
+    return true;
+  }
+}
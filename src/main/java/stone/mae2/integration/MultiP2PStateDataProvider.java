@@ -29,6 +29,8 @@ import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.player.Player;
 
+import stone.mae2.parts.p2p.multi.DistributingMultiP2PTunnel;
+import stone.mae2.parts.p2p.multi.DistributionMode;
 import stone.mae2.parts.p2p.multi.MultiP2PTunnel;
 import stone.mae2.util.TransHelper;
 
@@ -45,6 +47,8 @@ public final class MultiP2PStateDataProvider implements
   public static final String TAG_P2P_LINKS = "p2pLinks";
   public static final String TAG_P2P_FREQUENCY = "p2pFrequency";
   public static final String TAG_P2P_FREQUENCY_NAME = "p2pFrequencyName";
+  public static final String TAG_P2P_DISTRIBUTION = "p2pDistribution";
+  public static final String TAG_P2P_BUFFERED = "p2pBuffered";
 
   @Override
   public void buildTooltip(MultiP2PTunnel.Part object, TooltipContext context,
@@ -74,6 +78,16 @@ public final class MultiP2PStateDataProvider implements
       }
 
       tooltip.addLine(InGameTooltip.P2PFrequency.text(freqTooltip));
+
+      if (serverData.contains(TAG_P2P_DISTRIBUTION, Tag.TAG_STRING)) {
+        var mode = DistributionMode
+          .byName(serverData.getString(TAG_P2P_DISTRIBUTION));
+        tooltip
+          .addLine(TransHelper.GUI
+            .translatable("multiP2P.distribution", mode.getName()));
+        if (serverData.getBoolean(TAG_P2P_BUFFERED))
+          tooltip.addLine(TransHelper.GUI.translatable("multiP2P.buffered"));
+      }
     }
   }
 
@@ -104,6 +118,14 @@ public final class MultiP2PStateDataProvider implements
           // TODO naming frequencies?? maybe as part of a better memory card
         }
       }
+      // inputs are where these get changed, so that's where they're shown
+      if (!part.isOutput()
+        && tunnel instanceof DistributingMultiP2PTunnel distributing) {
+        serverData
+          .putString(TAG_P2P_DISTRIBUTION,
+            distributing.getDistributionMode().name());
+        serverData.putBoolean(TAG_P2P_BUFFERED, distributing.isBuffered());
+      }
       if (tunnel.getCustomName() != null) {
         serverData
           .putString(TAG_P2P_FREQUENCY_NAME,
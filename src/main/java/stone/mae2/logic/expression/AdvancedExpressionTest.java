@@ -1,7 +1,6 @@
 package stone.mae2.logic.expression;
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * Comprehensive test suite for the Advanced Level Emitter expression system.
@@ -185,9 +184,9 @@ public class AdvancedExpressionTest {
         }
 
         private long scanForPattern(String pattern) {
-            Pattern regex = null;
-            if (pattern.contains("*")) {
-                regex = Pattern.compile(pattern.replace("*", ".*"));
+            WildcardPattern wildcard = null;
+            if (WildcardPattern.isWildcard(pattern)) {
+                wildcard = WildcardPattern.compile(pattern);
             }
 
             long totalCount = 0;
@@ -201,10 +200,10 @@ public class AdvancedExpressionTest {
 
                 // Check if this item matches the pattern
                 boolean matches = false;
-                if (regex != null) {
+                if (wildcard != null) {
                     // Wildcard pattern - check if any identifier matches
                     for (String identifier : identifiers) {
-                        if (regex.matcher(identifier).matches()) {
+                        if (wildcard.matches(identifier)) {
                             matches = true;
                             break;
                         }
@@ -23,6 +23,21 @@ public class BinaryNode extends Node {
         return operator;
     }
 
+    @Override
+    public ValueType getType() {
+        switch (operator) {
+            case PLUS:
+            case MINUS:
+            case MULTIPLY:
+            case DIVIDE:
+            case MODULO:
+                return ValueType.NUMBER;
+            default:
+                // Comparisons and logical operators
+                return ValueType.BOOLEAN;
+        }
+    }
+
     @Override
     public <R> R accept(Visitor<R> visitor) {
         return visitor.visit(this);
@@ -0,0 +1,286 @@
+package stone.mae2.logic.expression;
+
+import java.util.List;
+
+/**
+ * A type checked expression compiled into a tree of primitive closures.
+ * Evaluating it doesn't box anything or check types, it only reads the counts
+ * the expression references from the context.
+ *
+ * {@code &&} and {@code ||} short circuit, and evaluate whichever side is
+ * cheaper first, so a cheap exact id check can skip an expensive wildcard.
+ * Counts are only requested from the context once evaluation reaches them.
+ *
+ * Arithmetic saturates at the bounds of a long instead of wrapping around, so
+ * adding up huge counts can't turn negative. Dividing by zero gives zero.
+ */
+public final class CompiledExpression {
+    private final BooleanTerm root;
+
+    private CompiledExpression(BooleanTerm root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles a parsed expression, which has to be a condition.
+     */
+    public static CompiledExpression compile(Node node) {
+        if (node.getType() != ValueType.BOOLEAN) {
+            throw new RuntimeException("Expression did not evaluate to a boolean.");
+        }
+        return new CompiledExpression((BooleanTerm) node.accept(new Compiler()));
+    }
+
+    public boolean evaluate(InventoryContext context) {
+        return root.evaluate(context);
+    }
+
+    // Rough relative costs of getting a count from a context
+    private static final int EXACT_COST = 1;
+    private static final int WILDCARD_COST = 16;
+
+    /**
+     * Estimates how expensive a node is to evaluate, mostly from how many counts
+     * it reads and whether they're wildcards that match many keys.
+     */
+    static int estimateCost(Node node) {
+        if (node instanceof TagNode tag) {
+            return WildcardPattern.isWildcard(tag.getTag()) ? WILDCARD_COST : EXACT_COST;
+        } else if (node instanceof BinaryNode binary) {
+            return estimateCost(binary.getLeft()) + estimateCost(binary.getRight());
+        } else if (node instanceof UnaryNode unary) {
+            return estimateCost(unary.getOperand());
+        } else if (node instanceof FunctionNode function) {
+            if (function.getFunction() == FunctionNode.Function.CRAFTABLE) {
+                return WILDCARD_COST;
+            }
+            int cost = 0;
+            for (Node argument : function.getArguments()) {
+                cost += estimateCost(argument);
+            }
+            return cost;
+        }
+        return 0;
+    }
+
+    static long add(long a, long b) {
+        long result = a + b;
+        // overflowed if both operands have a different sign from the result
+        if (((a ^ result) & (b ^ result)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return result;
+    }
+
+    static long subtract(long a, long b) {
+        long result = a - b;
+        if (((a ^ b) & (a ^ result)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return result;
+    }
+
+    static long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long result = a * b;
+        // fits if the high half is only the sign extension of the low half
+        if (high != (result >> 63)) {
+            return (a < 0) == (b < 0) ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return result;
+    }
+
+    static long divide(long a, long b) {
+        if (b == 0) {
+            return 0;
+        }
+        if (a == Long.MIN_VALUE && b == -1) {
+            return Long.MAX_VALUE;
+        }
+        return a / b;
+    }
+
+    static long modulo(long a, long b) {
+        // MIN_VALUE % -1 is 0 already, only zero needs handling
+        return b == 0 ? 0 : a % b;
+    }
+
+    static long negate(long a) {
+        return a == Long.MIN_VALUE ? Long.MAX_VALUE : -a;
+    }
+
+    @FunctionalInterface
+    interface NumberTerm {
+        long evaluate(InventoryContext context);
+    }
+
+    @FunctionalInterface
+    interface BooleanTerm {
+        boolean evaluate(InventoryContext context);
+    }
+
+    /**
+     * Turns each node into a {@link NumberTerm} or a {@link BooleanTerm},
+     * relying on the parser having checked operand types.
+     */
+    private static class Compiler implements Node.Visitor<Object> {
+        @Override
+        public Object visit(BinaryNode node) {
+            Node leftNode = node.getLeft();
+            Node rightNode = node.getRight();
+            // Nothing has side effects, so the cheaper side can go first
+            if ((node.getOperator() == TokenType.AND || node.getOperator() == TokenType.OR)
+                    && estimateCost(rightNode) < estimateCost(leftNode)) {
+                leftNode = node.getRight();
+                rightNode = node.getLeft();
+            }
+            Object left = leftNode.accept(this);
+            Object right = rightNode.accept(this);
+
+            switch (node.getOperator()) {
+                case OR: {
+                    BooleanTerm l = (BooleanTerm) left, r = (BooleanTerm) right;
+                    return (BooleanTerm) context -> l.evaluate(context) || r.evaluate(context);
+                }
+                case AND: {
+                    BooleanTerm l = (BooleanTerm) left, r = (BooleanTerm) right;
+                    return (BooleanTerm) context -> l.evaluate(context) && r.evaluate(context);
+                }
+                case XOR: {
+                    BooleanTerm l = (BooleanTerm) left, r = (BooleanTerm) right;
+                    return (BooleanTerm) context -> l.evaluate(context) ^ r.evaluate(context);
+                }
+                case EQ:
+                    if (left instanceof BooleanTerm l) {
+                        BooleanTerm r = (BooleanTerm) right;
+                        return (BooleanTerm) context -> l.evaluate(context) == r.evaluate(context);
+                    } else {
+                        NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                        return (BooleanTerm) context -> l.evaluate(context) == r.evaluate(context);
+                    }
+                case NEQ:
+                    if (left instanceof BooleanTerm l) {
+                        BooleanTerm r = (BooleanTerm) right;
+                        return (BooleanTerm) context -> l.evaluate(context) != r.evaluate(context);
+                    } else {
+                        NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                        return (BooleanTerm) context -> l.evaluate(context) != r.evaluate(context);
+                    }
+                case GT: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (BooleanTerm) context -> l.evaluate(context) > r.evaluate(context);
+                }
+                case LT: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (BooleanTerm) context -> l.evaluate(context) < r.evaluate(context);
+                }
+                case GTE: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (BooleanTerm) context -> l.evaluate(context) >= r.evaluate(context);
+                }
+                case LTE: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (BooleanTerm) context -> l.evaluate(context) <= r.evaluate(context);
+                }
+                case PLUS: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (NumberTerm) context -> add(l.evaluate(context), r.evaluate(context));
+                }
+                case MINUS: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (NumberTerm) context -> subtract(l.evaluate(context), r.evaluate(context));
+                }
+                case MULTIPLY: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (NumberTerm) context -> multiply(l.evaluate(context), r.evaluate(context));
+                }
+                case DIVIDE: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (NumberTerm) context -> divide(l.evaluate(context), r.evaluate(context));
+                }
+                case MODULO: {
+                    NumberTerm l = (NumberTerm) left, r = (NumberTerm) right;
+                    return (NumberTerm) context -> modulo(l.evaluate(context), r.evaluate(context));
+                }
+                default:
+                    throw new RuntimeException("Unknown operator: " + node.getOperator());
+            }
+        }
+
+        @Override
+        public Object visit(UnaryNode node) {
+            Object operand = node.getOperand().accept(this);
+
+            switch (node.getOperator()) {
+                case NOT: {
+                    BooleanTerm o = (BooleanTerm) operand;
+                    return (BooleanTerm) context -> !o.evaluate(context);
+                }
+                case MINUS: {
+                    NumberTerm o = (NumberTerm) operand;
+                    return (NumberTerm) context -> negate(o.evaluate(context));
+                }
+                default:
+                    throw new RuntimeException("Unknown unary operator: " + node.getOperator());
+            }
+        }
+
+        @Override
+        public Object visit(LiteralNode node) {
+            long value = node.getValue();
+            return (NumberTerm) context -> value;
+        }
+
+        @Override
+        public Object visit(TagNode node) {
+            String tag = node.getTag();
+            return (NumberTerm) context -> context.getCount(tag);
+        }
+
+        @Override
+        public Object visit(FunctionNode node) {
+            List<Node> arguments = node.getArguments();
+            if (node.getFunction() == FunctionNode.Function.CRAFTABLE) {
+                String tag = ((TagNode) arguments.get(0)).getTag();
+                return (BooleanTerm) context -> context.isCraftable(tag);
+            }
+
+            NumberTerm[] terms = new NumberTerm[arguments.size()];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = (NumberTerm) arguments.get(i).accept(this);
+            }
+            if (terms.length == 1) {
+                // min, max and sum of a single number are all that number
+                return terms[0];
+            }
+            switch (node.getFunction()) {
+                case MIN:
+                    return (NumberTerm) context -> {
+                        long result = terms[0].evaluate(context);
+                        for (int i = 1; i < terms.length; i++) {
+                            result = Math.min(result, terms[i].evaluate(context));
+                        }
+                        return result;
+                    };
+                case MAX:
+                    return (NumberTerm) context -> {
+                        long result = terms[0].evaluate(context);
+                        for (int i = 1; i < terms.length; i++) {
+                            result = Math.max(result, terms[i].evaluate(context));
+                        }
+                        return result;
+                    };
+                case SUM:
+                    return (NumberTerm) context -> {
+                        long result = terms[0].evaluate(context);
+                        for (int i = 1; i < terms.length; i++) {
+                            result = add(result, terms[i].evaluate(context));
+                        }
+                        return result;
+                    };
+                default:
+                    throw new RuntimeException("Unknown function: " + node.getFunction().getName());
+            }
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package stone.mae2.logic.expression;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 public class ExpressionParser {
     private final List<Token> tokens;
+    private final UnaryOperator<String> tagResolver;
     private int pos;
 
     public ExpressionParser(List<Token> tokens) {
+        this(tokens, UnaryOperator.identity());
+    }
+
+    /**
+     * @param tagResolver turns ids, tags and patterns as written into the form
+     *                    the inventory context knows them by
+     */
+    public ExpressionParser(List<Token> tokens, UnaryOperator<String> tagResolver) {
         this.tokens = tokens;
+        this.tagResolver = tagResolver;
         this.pos = 0;
     }
 
@@ -16,6 +28,10 @@ public class ExpressionParser {
         if (!match(TokenType.EOF)) {
             throw new RuntimeException("Unexpected token at end of expression: " + peek());
         }
+        if (node.getType() != ValueType.BOOLEAN) {
+            throw new RuntimeException("Expression must be a condition, like a comparison, not a "
+                    + describe(node.getType()));
+        }
         return node;
     }
 
@@ -30,7 +46,7 @@ public class ExpressionParser {
         while (match(TokenType.OR)) {
             Token operator = previous();
             Node right = parseXorTerm();
-            left = new BinaryNode(left, operator.getType(), right);
+            left = binary(left, operator, right);
         }
         return left;
     }
@@ -41,7 +57,7 @@ public class ExpressionParser {
         while (match(TokenType.XOR)) {
             Token operator = previous();
             Node right = parseAndTerm();
-            left = new BinaryNode(left, operator.getType(), right);
+            left = binary(left, operator, right);
         }
         return left;
     }
@@ -52,7 +68,7 @@ public class ExpressionParser {
         while (match(TokenType.AND)) {
             Token operator = previous();
             Node right = parseEqualityTerm();
-            left = new BinaryNode(left, operator.getType(), right);
+            left = binary(left, operator, right);
         }
         return left;
     }
@@ -63,33 +79,55 @@ public class ExpressionParser {
         while (match(TokenType.EQ, TokenType.NEQ)) {
             Token operator = previous();
             Node right = parseComparisonTerm();
-            left = new BinaryNode(left, operator.getType(), right);
+            left = binary(left, operator, right);
         }
         return left;
     }
 
-    // ComparisonTerm -> UnaryTerm ( ('>' | '<' | '>=' | '<=') UnaryTerm )*
+    // ComparisonTerm -> AdditiveTerm ( ('>' | '<' | '>=' | '<=') AdditiveTerm )*
     private Node parseComparisonTerm() {
-        Node left = parseUnaryTerm();
+        Node left = parseAdditiveTerm();
         while (match(TokenType.GT, TokenType.LT, TokenType.GTE, TokenType.LTE)) {
+            Token operator = previous();
+            Node right = parseAdditiveTerm();
+            left = binary(left, operator, right);
+        }
+        return left;
+    }
+
+    // AdditiveTerm -> MultiplicativeTerm ( ('+' | '-') MultiplicativeTerm )*
+    private Node parseAdditiveTerm() {
+        Node left = parseMultiplicativeTerm();
+        while (match(TokenType.PLUS, TokenType.MINUS)) {
+            Token operator = previous();
+            Node right = parseMultiplicativeTerm();
+            left = binary(left, operator, right);
+        }
+        return left;
+    }
+
+    // MultiplicativeTerm -> UnaryTerm ( ('*' | '/' | '%') UnaryTerm )*
+    private Node parseMultiplicativeTerm() {
+        Node left = parseUnaryTerm();
+        while (match(TokenType.MULTIPLY, TokenType.DIVIDE, TokenType.MODULO)) {
             Token operator = previous();
             Node right = parseUnaryTerm();
-            left = new BinaryNode(left, operator.getType(), right);
+            left = binary(left, operator, right);
         }
         return left;
     }
 
-    // UnaryTerm -> '!' UnaryTerm | Primary
+    // UnaryTerm -> ('!' | '-') UnaryTerm | Primary
     private Node parseUnaryTerm() {
-        if (match(TokenType.NOT)) {
+        if (match(TokenType.NOT, TokenType.MINUS)) {
             Token operator = previous();
             Node operand = parseUnaryTerm(); // Right-associative for multiple NOTs
-            return new UnaryNode(operator.getType(), operand);
+            return unary(operator, operand);
         }
         return parsePrimary();
     }
 
-    // Primary -> '(' Expression ')' | Identifier | Number
+    // Primary -> '(' Expression ')' | Function | Identifier | Number
     private Node parsePrimary() {
         if (match(TokenType.LPAREN)) {
             Node expression = parseExpression();
@@ -102,12 +140,89 @@ public class ExpressionParser {
         }
 
         if (match(TokenType.IDENTIFIER)) {
-            return new TagNode(previous().getValue());
+            Token identifier = previous();
+            if (match(TokenType.LPAREN)) {
+                return parseFunction(identifier);
+            }
+            return new TagNode(tagResolver.apply(identifier.getValue()));
         }
 
         throw new RuntimeException("Expect expression. Found: " + peek());
     }
 
+    // Function -> Identifier '(' Expression ( ',' Expression )* ')'
+    private Node parseFunction(Token name) {
+        FunctionNode.Function function = FunctionNode.Function.byName(name.getValue());
+        if (function == null) {
+            throw new RuntimeException("Unknown function '" + name.getValue() + "' at position "
+                    + name.getPosition());
+        }
+        List<Node> arguments = new ArrayList<>();
+        do {
+            arguments.add(parseExpression());
+        } while (match(TokenType.COMMA));
+        consume(TokenType.RPAREN, "Expect ')' after arguments of '" + name.getValue() + "'.");
+
+        switch (function) {
+            case CRAFTABLE:
+                if (arguments.size() != 1 || !(arguments.get(0) instanceof TagNode)) {
+                    throw new RuntimeException("Function 'craftable' at position " + name.getPosition()
+                            + " expects a single id, tag or pattern");
+                }
+                break;
+            default:
+                for (Node argument : arguments) {
+                    if (argument.getType() != ValueType.NUMBER) {
+                        throw new RuntimeException("Function '" + name.getValue() + "' at position "
+                                + name.getPosition() + " expects numbers, got a "
+                                + describe(argument.getType()));
+                    }
+                }
+        }
+        return new FunctionNode(function, arguments);
+    }
+
+    private Node binary(Node left, Token operator, Node right) {
+        switch (operator.getType()) {
+            case OR:
+            case AND:
+            case XOR:
+                expectType(left, ValueType.BOOLEAN, operator);
+                expectType(right, ValueType.BOOLEAN, operator);
+                break;
+            case EQ:
+            case NEQ:
+                if (left.getType() != right.getType()) {
+                    throw new RuntimeException("Operator '" + operator.getValue() + "' at position "
+                            + operator.getPosition() + " compares a " + describe(left.getType())
+                            + " to a " + describe(right.getType()));
+                }
+                break;
+            default:
+                expectType(left, ValueType.NUMBER, operator);
+                expectType(right, ValueType.NUMBER, operator);
+        }
+        return new BinaryNode(left, operator.getType(), right);
+    }
+
+    private Node unary(Token operator, Node operand) {
+        expectType(operand, operator.getType() == TokenType.MINUS ? ValueType.NUMBER : ValueType.BOOLEAN,
+                operator);
+        return new UnaryNode(operator.getType(), operand);
+    }
+
+    private static void expectType(Node operand, ValueType expected, Token operator) {
+        if (operand.getType() != expected) {
+            throw new RuntimeException("Operator '" + operator.getValue() + "' at position "
+                    + operator.getPosition() + " expects a " + describe(expected) + ", got a "
+                    + describe(operand.getType()));
+        }
+    }
+
+    private static String describe(ValueType type) {
+        return type == ValueType.BOOLEAN ? "condition" : "number";
+    }
+
     private boolean match(TokenType... types) {
         for (TokenType type : types) {
             if (check(type)) {
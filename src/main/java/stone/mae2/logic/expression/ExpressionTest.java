@@ -50,11 +50,11 @@ public class ExpressionTest {
         @Override
         public long getCount(String tag) {
             // Simple wildcard support for testing
-            if (tag.contains("*")) {
+            if (WildcardPattern.isWildcard(tag)) {
                 long sum = 0;
-                String regex = tag.replace("*", ".*");
+                WildcardPattern pattern = WildcardPattern.compile(tag);
                 for (Map.Entry<String, Long> entry : inventory.entrySet()) {
-                    if (entry.getKey().matches(regex)) {
+                    if (pattern.matches(entry.getKey())) {
                         sum += entry.getValue();
                     }
                 }
@@ -0,0 +1,78 @@
+package stone.mae2.logic.expression;
+
+import java.util.List;
+
+/**
+ * A call to one of the built in functions, like {@code min(a, b)}.
+ */
+public class FunctionNode extends Node {
+    public enum Function {
+        // smallest of one or more numbers
+        MIN("min", ValueType.NUMBER),
+        // largest of one or more numbers
+        MAX("max", ValueType.NUMBER),
+        // total of one or more numbers
+        SUM("sum", ValueType.NUMBER),
+        // whether anything matching an id, tag or pattern has a pattern to craft it
+        CRAFTABLE("craftable", ValueType.BOOLEAN);
+
+        private final String name;
+        private final ValueType type;
+
+        Function(String name, ValueType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ValueType getType() {
+            return type;
+        }
+
+        /**
+         * @return the function with the name, or null if there's none
+         */
+        public static Function byName(String name) {
+            for (Function function : values()) {
+                if (function.name.equals(name)) {
+                    return function;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Function function;
+    private final List<Node> arguments;
+
+    public FunctionNode(Function function, List<Node> arguments) {
+        this.function = function;
+        this.arguments = List.copyOf(arguments);
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public List<Node> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public ValueType getType() {
+        return function.getType();
+    }
+
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public String toString() {
+        return "FunctionNode{function=" + function.getName() + ", arguments=" + arguments + "}";
+    }
+}
@@ -2,4 +2,11 @@ package stone.mae2.logic.expression;
 
 public interface InventoryContext {
     long getCount(String tag);
+
+    /**
+     * Whether anything matching the id, tag or pattern can be crafted.
+     */
+    default boolean isCraftable(String tag) {
+        return false;
+    }
 }
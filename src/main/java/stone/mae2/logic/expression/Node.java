@@ -3,6 +3,8 @@ package stone.mae2.logic.expression;
 public abstract class Node {
     public abstract <R> R accept(Visitor<R> visitor);
 
+    public abstract ValueType getType();
+
     public interface Visitor<R> {
         R visit(BinaryNode node);
 
@@ -11,5 +13,7 @@ public abstract class Node {
         R visit(LiteralNode node);
 
         R visit(TagNode node);
+
+        R visit(FunctionNode node);
     }
 }
@@ -11,6 +11,11 @@ public class TagNode extends Node {
         return tag;
     }
 
+    @Override
+    public ValueType getType() {
+        return ValueType.NUMBER;
+    }
+
     @Override
     public <R> R accept(Visitor<R> visitor) {
         return visitor.visit(this);
@@ -13,6 +13,12 @@ public enum TokenType {
     OR, // ||
     XOR, // ^
     NOT, // !
+    PLUS, // +
+    MINUS, // -
+    MULTIPLY, // *
+    DIVIDE, // /
+    MODULO, // %
+    COMMA, // ,
     LPAREN, // (
     RPAREN, // )
     EOF
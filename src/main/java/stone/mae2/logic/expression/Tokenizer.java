@@ -3,6 +3,11 @@ package stone.mae2.logic.expression;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Splits an expression into tokens. Ids and tags can contain '-', '/' and '*',
+ * so operators next to them need spaces around them, like
+ * {@code forge:ingots/iron / 9} rather than {@code forge:ingots/iron/9}.
+ */
 public class Tokenizer {
     private final String input;
     private int pos;
@@ -27,7 +32,9 @@ public class Tokenizer {
                 continue;
             }
 
-            if (isIdentifierStart(current)) {
+            // '*' right after a value multiplies, anywhere else it starts a
+            // wildcard pattern
+            if (isIdentifierStart(current) && !(current == '*' && followsValue(tokens))) {
                 tokens.add(readIdentifier());
                 continue;
             }
@@ -85,6 +92,30 @@ public class Tokenizer {
                                 "Unexpected character '|' at position " + pos + ". Did you mean '||'?");
                     }
                     break;
+                case '+':
+                    tokens.add(new Token(TokenType.PLUS, "+", pos));
+                    pos++;
+                    break;
+                case '-':
+                    tokens.add(new Token(TokenType.MINUS, "-", pos));
+                    pos++;
+                    break;
+                case '*':
+                    tokens.add(new Token(TokenType.MULTIPLY, "*", pos));
+                    pos++;
+                    break;
+                case '/':
+                    tokens.add(new Token(TokenType.DIVIDE, "/", pos));
+                    pos++;
+                    break;
+                case '%':
+                    tokens.add(new Token(TokenType.MODULO, "%", pos));
+                    pos++;
+                    break;
+                case ',':
+                    tokens.add(new Token(TokenType.COMMA, ",", pos));
+                    pos++;
+                    break;
                 case '(':
                     tokens.add(new Token(TokenType.LPAREN, "(", pos));
                     pos++;
@@ -101,6 +132,36 @@ public class Tokenizer {
         return tokens;
     }
 
+    /**
+     * Joins tokens back into an expression with single spaces between them, so
+     * expressions that only differ in whitespace come out the same.
+     */
+    public static String normalize(List<Token> tokens) {
+        StringBuilder builder = new StringBuilder();
+        for (Token token : tokens) {
+            if (token.getType() == TokenType.EOF) {
+                break;
+            }
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(token.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Whether the last token ends a value, so whatever comes next has to be an
+     * operator
+     */
+    private static boolean followsValue(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        TokenType last = tokens.get(tokens.size() - 1).getType();
+        return last == TokenType.NUMBER || last == TokenType.IDENTIFIER || last == TokenType.RPAREN;
+    }
+
     private boolean match(char expected) {
         if (pos + 1 < input.length() && input.charAt(pos + 1) == expected) {
             pos += 2;
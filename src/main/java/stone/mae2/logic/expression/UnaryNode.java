@@ -2,7 +2,7 @@ package stone.mae2.logic.expression;
 
 /**
  * Represents a unary operation node in the expression AST.
- * Currently supports the NOT (!) operator.
+ * Supports the NOT (!) operator on conditions and negation (-) of numbers.
  */
 public class UnaryNode extends Node {
     private final TokenType operator;
@@ -21,6 +21,11 @@ public class UnaryNode extends Node {
         return operand;
     }
 
+    @Override
+    public ValueType getType() {
+        return operator == TokenType.MINUS ? ValueType.NUMBER : ValueType.BOOLEAN;
+    }
+
     @Override
     public <R> R accept(Visitor<R> visitor) {
         return visitor.visit(this);
@@ -0,0 +1,10 @@
+package stone.mae2.logic.expression;
+
+/**
+ * What an expression node evaluates to, checked while parsing so mismatched
+ * operands are reported when the expression is entered.
+ */
+public enum ValueType {
+    NUMBER,
+    BOOLEAN
+}
@@ -0,0 +1,85 @@
+package stone.mae2.logic.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Glob style pattern where {@code *} matches any run of characters, including
+ * none. Everything else matches literally, so ids with dots or other regex
+ * characters in them need no escaping.
+ *
+ * Matching walks the literal parts left to right without allocating, each
+ * {@code *} taking the shortest run that lets the next part match.
+ */
+public final class WildcardPattern {
+    private final String pattern;
+    // literal parts between the stars, the first is anchored at the start and
+    // the last at the end
+    private final String[] parts;
+    private final int minLength;
+
+    private WildcardPattern(String pattern, String[] parts) {
+        this.pattern = pattern;
+        this.parts = parts;
+        int length = 0;
+        for (String part : parts) {
+            length += part.length();
+        }
+        this.minLength = length;
+    }
+
+    public static WildcardPattern compile(String pattern) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int star;
+        while ((star = pattern.indexOf('*', start)) >= 0) {
+            parts.add(pattern.substring(start, star));
+            start = star + 1;
+        }
+        parts.add(pattern.substring(start));
+        return new WildcardPattern(pattern, parts.toArray(String[]::new));
+    }
+
+    public static boolean isWildcard(String pattern) {
+        return pattern.indexOf('*') >= 0;
+    }
+
+    public boolean matches(String text) {
+        if (text.length() < minLength)
+            return false;
+        String first = parts[0];
+        if (parts.length == 1)
+            return text.equals(first);
+        if (!text.startsWith(first))
+            return false;
+        String last = parts[parts.length - 1];
+        int end = text.length() - last.length();
+        if (!text.startsWith(last, end))
+            return false;
+
+        int position = first.length();
+        for (int i = 1; i < parts.length - 1; i++) {
+            String part = parts[i];
+            if (part.isEmpty())
+                continue;
+            int found = text.indexOf(part, position);
+            if (found < 0 || found + part.length() > end)
+                return false;
+            position = found + part.length();
+        }
+        return true;
+    }
+
+    public boolean matchesAny(String[] texts) {
+        for (String text : texts) {
+            if (matches(text))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,598 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.me.service;
+
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.IGridService;
+import appeng.api.networking.IGridServiceProvider;
+import appeng.api.networking.storage.IStackWatcher;
+import appeng.api.stacks.AEFluidKey;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.AEKeyType;
+import appeng.api.stacks.AEKeyTypes;
+import it.unimi.dsi.fastutil.objects.Object2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.Nullable;
+
+import stone.mae2.logic.expression.InventoryContext;
+import stone.mae2.logic.expression.Token;
+import stone.mae2.logic.expression.Tokenizer;
+import stone.mae2.logic.expression.WildcardPattern;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Grid wide index of item ids and tags to how much of them is stored, for
+ * advanced level emitters to read instead of scanning the whole inventory
+ *
+ * The index mirrors the storage service's cached inventory and is kept up to
+ * date from a stack watcher watching everything. Grid services can't have a
+ * watcher of their own, so the emitters offer theirs and one of them gets
+ * borrowed. Exact ids and tags are counted for every key, wildcard patterns
+ * only while an emitter uses them, and each key counts at most once towards
+ * each of them.
+ *
+ * A wildcard pattern is matched against each id or tag once, when either of
+ * them is first seen, and remembers the ones it matched. Counting a key
+ * towards it is then only a set lookup per id.
+ *
+ * Every id and tag is also counted behind the prefix of its key type, like
+ * {@code fluid:minecraft:water}, for telling apart item and fluid tags sharing
+ * a name.
+ *
+ * Emitters get alerted when the count of a pattern they read changes, at most
+ * once a tick, so they don't need to poll. Emitters with the same expression
+ * share one {@link SharedExpression}, which is parsed once and only evaluated
+ * again once something was counted.
+ *
+ * What's craftable is looked up from the crafting service when an expression
+ * asks, and forgotten when a borrowed crafting watcher reports a change.
+ */
+public class InventoryIndexService
+  implements IGridService, IGridServiceProvider, InventoryContext {
+  // bumped whenever tags get reloaded, since they change what every key counts
+  // towards
+  private static int tagGeneration = 0;
+  private static Set<String> typePrefixes;
+
+  public static InventoryIndexService get(IGrid grid) {
+    return grid.getService(InventoryIndexService.class);
+  }
+
+  public static void onTagsUpdated() {
+    tagGeneration++;
+  }
+
+  /**
+   * @return what ids and tags of the key type are prefixed with
+   */
+  public static String getTypePrefix(AEKeyType type) {
+    if (type == AEKeyType.items())
+      return "item";
+    if (type == AEKeyType.fluids())
+      return "fluid";
+    return type.getId().getPath();
+  }
+
+  /**
+   * Adds the minecraft namespace to a type prefixed id or tag without one, so
+   * {@code fluid:water} means {@code fluid:minecraft:water}. Wildcard patterns
+   * are left alone, {@code fluid:*} matches every fluid.
+   */
+  public static String resolveTag(String tag) {
+    int colon = tag.indexOf(':');
+    if (colon < 0 || tag.indexOf(':', colon + 1) >= 0
+      || WildcardPattern.isWildcard(tag))
+      return tag;
+    String prefix = tag.substring(0, colon);
+    if (!getTypePrefixes().contains(prefix))
+      return tag;
+    return prefix + ":minecraft:" + tag.substring(colon + 1);
+  }
+
+  private static Set<String> getTypePrefixes() {
+    // key types are all registered during startup
+    if (typePrefixes == null) {
+      typePrefixes = AEKeyTypes
+        .getAll()
+        .stream()
+        .map(InventoryIndexService::getTypePrefix)
+        .collect(Collectors.toUnmodifiableSet());
+    }
+    return typePrefixes;
+  }
+
+  private final IGrid grid;
+
+  // watchers offered by emitters, the first one is feeding the index
+  private final Map<IGridNode, IStackWatcher> watchers = new Reference2ObjectLinkedOpenHashMap<>(
+    0);
+  private IGridNode feeder;
+  private boolean isBuilt;
+  private int myTagGeneration;
+
+  // mirror of the cached inventory, to turn new amounts into changes
+  private final Object2LongOpenHashMap<AEKey> amounts = new Object2LongOpenHashMap<>();
+  // ids and tags of everything sharing a primary key, like an item
+  private final Map<Object, String[]> identifiers = new Reference2ObjectOpenHashMap<>();
+  private final Object2LongOpenHashMap<String> identifierCounts = new Object2LongOpenHashMap<>();
+  // every id and tag seen since the last rebuild, for resolving new patterns
+  private final Set<String> knownIdentifiers = new ObjectOpenHashSet<>();
+
+  // wildcard patterns in use, with how many emitters use them
+  private final Object2IntOpenHashMap<String> patternUsers = new Object2IntOpenHashMap<>();
+  // wildcard patterns that were read at least once and are now kept counted,
+  // ones behind a short circuit that's never reached cost nothing
+  private final Map<String, ResolvedPattern> patterns = new HashMap<>();
+  private final Map<IGridNode, Set<String>> nodePatterns = new Reference2ObjectOpenHashMap<>(
+    0);
+  // reverse of nodePatterns, for who to alert on changes
+  private final Map<String, Set<IGridNode>> patternNodes = new HashMap<>();
+  // alerted at the end of the tick, alerting each node once no matter how many
+  // of its counts changed
+  private final Set<IGridNode> pendingAlerts = new ReferenceOpenHashSet<>();
+  // bumped on every count change, for telling when a result is stale
+  private long version;
+
+  // expressions in use by normalized expression, dropped with their last user
+  private final Map<String, SharedExpression> expressions = new HashMap<>();
+  private final Map<IGridNode, ExpressionUse> expressionUses = new Reference2ObjectOpenHashMap<>(
+    0);
+
+  // crafting watchers offered by emitters, the first one reports changes
+  private final Map<IGridNode, IStackWatcher> craftingWatchers = new Reference2ObjectLinkedOpenHashMap<>(
+    0);
+  private IGridNode craftingFeeder;
+  // patterns asked about, until craftables change
+  private final Object2BooleanOpenHashMap<String> craftables = new Object2BooleanOpenHashMap<>();
+
+  public InventoryIndexService(IGrid grid) {
+    this.grid = grid;
+  }
+
+  /**
+   * Takes a stack watcher an emitter got from the storage service, in case
+   * the index needs one to be fed from
+   */
+  public void offerWatcher(IGridNode node, IStackWatcher watcher) {
+    this.watchers.put(node, watcher);
+    if (this.feeder == null || this.feeder == node) {
+      useFeeder(node);
+    }
+  }
+
+  /**
+   * Forwarded from an emitter's watcher, ignored unless it's the one feeding
+   * the index
+   */
+  public void onStackChange(IGridNode node, AEKey what, long amount) {
+    if (node != this.feeder || !this.isBuilt)
+      return;
+    if (this.myTagGeneration != tagGeneration) {
+      rebuild();
+      this.pendingAlerts.addAll(this.nodePatterns.keySet());
+      return;
+    }
+    long old = this.amounts.getLong(what);
+    if (amount > 0) {
+      this.amounts.put(what, amount);
+    } else {
+      this.amounts.removeLong(what);
+    }
+    if (amount != old) {
+      count(what, amount - old);
+    }
+  }
+
+  /**
+   * Takes a crafting watcher an emitter got from the crafting service, in case
+   * the index needs one to hear about craftable changes from
+   */
+  public void offerCraftingWatcher(IGridNode node, IStackWatcher watcher) {
+    this.craftingWatchers.put(node, watcher);
+    if (this.craftingFeeder == null || this.craftingFeeder == node) {
+      useCraftingFeeder(node);
+    }
+  }
+
+  /**
+   * Forwarded from an emitter's crafting watcher, ignored unless it's the one
+   * the index listens to
+   */
+  public void onCraftableChange(IGridNode node) {
+    if (node == this.craftingFeeder)
+      forgetCraftables();
+  }
+
+  /**
+   * Sets which patterns an emitter node reads, so wildcard patterns are only
+   * kept up to date while something needs them
+   *
+   * @param patterns patterns of the node, passing the same set again does
+   *                 nothing
+   */
+  public void setPatterns(IGridNode node, Set<String> patterns) {
+    Set<String> old = this.nodePatterns.get(node);
+    if (old == patterns)
+      return;
+    if (old != null) {
+      for (String pattern : old) {
+        removePattern(pattern);
+        Set<IGridNode> nodes = this.patternNodes.get(pattern);
+        nodes.remove(node);
+        if (nodes.isEmpty())
+          this.patternNodes.remove(pattern);
+      }
+    }
+    if (patterns == null) {
+      this.nodePatterns.remove(node);
+      this.pendingAlerts.remove(node);
+      return;
+    }
+    this.nodePatterns.put(node, patterns);
+    for (String pattern : patterns) {
+      addPattern(pattern);
+      this.patternNodes
+        .computeIfAbsent(pattern, $ -> new ReferenceOpenHashSet<>())
+        .add(node);
+    }
+    this.pendingAlerts.add(node);
+  }
+
+  /**
+   * Sets the expression an emitter node evaluates, and the patterns it reads
+   * along with it
+   *
+   * @param expression the expression as entered, passing the same one again
+   *                   does nothing
+   * @return the expression shared with every node on the grid using the same
+   *         one, or null if it's blank
+   */
+  public SharedExpression useExpression(IGridNode node, String expression) {
+    ExpressionUse use = this.expressionUses.get(node);
+    if (use != null && use.expression.equals(expression))
+      return use.shared;
+    releaseExpression(node);
+    if (expression.isBlank()) {
+      setPatterns(node, null);
+      return null;
+    }
+
+    SharedExpression shared;
+    try {
+      List<Token> tokens = new Tokenizer(expression).tokenize();
+      String normalized = Tokenizer.normalize(tokens);
+      shared = this.expressions
+        .computeIfAbsent(normalized,
+          $ -> SharedExpression.parse(normalized, tokens));
+    } catch (RuntimeException e) {
+      // not worth sharing, the emitter only uses it to report the error
+      shared = SharedExpression.invalid(expression, e.getMessage());
+    }
+    shared.users++;
+    this.expressionUses.put(node, new ExpressionUse(expression, shared));
+    setPatterns(node, shared.getPatterns());
+    return shared;
+  }
+
+  private void releaseExpression(IGridNode node) {
+    ExpressionUse use = this.expressionUses.remove(node);
+    if (use != null && --use.shared.users == 0) {
+      this.expressions.remove(use.shared.getExpression(), use.shared);
+    }
+  }
+
+  long getVersion() {
+    return this.version;
+  }
+
+  @Override
+  public void onServerEndTick() {
+    if (this.pendingAlerts.isEmpty())
+      return;
+    var tickManager = this.grid.getTickManager();
+    for (IGridNode node : this.pendingAlerts) {
+      tickManager.alertDevice(node);
+    }
+    this.pendingAlerts.clear();
+  }
+
+  /**
+   * @return how much of everything matching the pattern is stored. Wildcard
+   *         patterns get counted the first time they're read, and kept counted
+   *         while an emitter uses them.
+   */
+  @Override
+  public long getCount(String pattern) {
+    if (!this.isBuilt)
+      return 0;
+    if (this.myTagGeneration != tagGeneration) {
+      rebuild();
+      this.pendingAlerts.addAll(this.nodePatterns.keySet());
+    }
+    if (WildcardPattern.isWildcard(pattern)) {
+      ResolvedPattern resolved = this.patterns.get(pattern);
+      if (resolved == null)
+        return resolvePattern(pattern);
+      return resolved.count;
+    }
+    return this.identifierCounts.getLong(pattern);
+  }
+
+  @Override
+  public boolean isCraftable(String pattern) {
+    if (this.craftables.containsKey(pattern))
+      return this.craftables.getBoolean(pattern);
+    boolean craftable = findCraftable(pattern);
+    this.craftables.put(pattern, craftable);
+    return craftable;
+  }
+
+  @Override
+  public void removeNode(IGridNode node) {
+    releaseExpression(node);
+    setPatterns(node, null);
+    if (this.craftingWatchers.remove(node) != null
+      && node == this.craftingFeeder) {
+      this.craftingFeeder = null;
+      if (this.craftingWatchers.isEmpty()) {
+        this.craftables.clear();
+      } else {
+        useCraftingFeeder(this.craftingWatchers.keySet().iterator().next());
+      }
+    }
+    if (this.watchers.remove(node) != null && node == this.feeder) {
+      this.feeder = null;
+      this.isBuilt = false;
+      if (this.watchers.isEmpty()) {
+        clear();
+      } else {
+        useFeeder(this.watchers.keySet().iterator().next());
+      }
+    }
+  }
+
+  @Override
+  public void addNode(IGridNode node, @Nullable CompoundTag savedData) {}
+
+  private void useFeeder(IGridNode node) {
+    this.feeder = node;
+    this.watchers.get(node).setWatchAll(true);
+    rebuild();
+    // counts could've changed without being reported
+    this.pendingAlerts.addAll(this.nodePatterns.keySet());
+  }
+
+  private void useCraftingFeeder(IGridNode node) {
+    this.craftingFeeder = node;
+    this.craftingWatchers.get(node).setWatchAll(true);
+    // changes could've been missed while nobody was listening
+    forgetCraftables();
+  }
+
+  /**
+   * Drops what's known to be craftable. There's no telling which emitters asked,
+   * so every one gets alerted, but pattern changes are rare and emitters sharing
+   * an expression still evaluate it once.
+   */
+  private void forgetCraftables() {
+    if (this.craftables.isEmpty())
+      return;
+    this.craftables.clear();
+    this.version++;
+    this.pendingAlerts.addAll(this.nodePatterns.keySet());
+  }
+
+  private boolean findCraftable(String pattern) {
+    WildcardPattern wildcard = WildcardPattern.isWildcard(pattern)
+      ? WildcardPattern.compile(pattern)
+      : null;
+    for (AEKey key : this.grid.getCraftingService().getCraftables($ -> true)) {
+      String[] ids = getIdentifiers(key);
+      if (wildcard != null ? wildcard.matchesAny(ids) : contains(ids, pattern))
+        return true;
+    }
+    return false;
+  }
+
+  private static boolean contains(String[] ids, String id) {
+    for (String candidate : ids) {
+      if (candidate.equals(id))
+        return true;
+    }
+    return false;
+  }
+
+  private void clear() {
+    this.version++;
+    this.amounts.clear();
+    this.identifiers.clear();
+    this.identifierCounts.clear();
+    this.knownIdentifiers.clear();
+    for (ResolvedPattern resolved : this.patterns.values()) {
+      resolved.identifiers.clear();
+      resolved.count = 0;
+    }
+  }
+
+  /**
+   * Recounts everything from the storage service's cached inventory, which is
+   * what the watcher reports changes against
+   */
+  private void rebuild() {
+    clear();
+    this.myTagGeneration = tagGeneration;
+    for (var entry : this.grid.getStorageService().getCachedInventory()) {
+      long amount = entry.getLongValue();
+      if (amount > 0) {
+        this.amounts.put(entry.getKey(), amount);
+        count(entry.getKey(), amount);
+      }
+    }
+    this.isBuilt = true;
+  }
+
+  private void count(AEKey what, long change) {
+    this.version++;
+    String[] ids = getIdentifiers(what);
+    for (String id : ids) {
+      if (this.identifierCounts.addTo(id, change) + change == 0)
+        this.identifierCounts.removeLong(id);
+      alert(id);
+    }
+    for (var entry : this.patterns.entrySet()) {
+      ResolvedPattern resolved = entry.getValue();
+      if (resolved.matchesAny(ids)) {
+        resolved.count += change;
+        alert(entry.getKey());
+      }
+    }
+  }
+
+  private void alert(String pattern) {
+    Set<IGridNode> nodes = this.patternNodes.get(pattern);
+    if (nodes != null)
+      this.pendingAlerts.addAll(nodes);
+  }
+
+  private void addPattern(String pattern) {
+    if (WildcardPattern.isWildcard(pattern))
+      this.patternUsers.addTo(pattern, 1);
+  }
+
+  /**
+   * Counts a wildcard pattern from scratch, keeping it counted from then on if
+   * an emitter uses it
+   */
+  private long resolvePattern(String pattern) {
+    ResolvedPattern resolved = new ResolvedPattern(
+      WildcardPattern.compile(pattern));
+    for (String id : this.knownIdentifiers) {
+      resolved.offer(id);
+    }
+    for (var entry : Object2LongMaps.fastIterable(this.amounts)) {
+      if (resolved.matchesAny(getIdentifiers(entry.getKey())))
+        resolved.count += entry.getLongValue();
+    }
+    if (this.patternUsers.getInt(pattern) > 0) {
+      this.patterns.put(pattern, resolved);
+    }
+    return resolved.count;
+  }
+
+  private void removePattern(String pattern) {
+    if (!WildcardPattern.isWildcard(pattern)
+      || this.patternUsers.addTo(pattern, -1) > 1)
+      return;
+    this.patternUsers.removeInt(pattern);
+    this.patterns.remove(pattern);
+  }
+
+  private String[] getIdentifiers(AEKey what) {
+    String[] ids = this.identifiers.get(what.getPrimaryKey());
+    if (ids == null) {
+      ids = findIdentifiers(what);
+      this.identifiers.put(what.getPrimaryKey(), ids);
+      for (String id : ids) {
+        if (this.knownIdentifiers.add(id)) {
+          for (ResolvedPattern resolved : this.patterns.values()) {
+            resolved.offer(id);
+          }
+        }
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * @return the id of the key and any tags it has, without duplicates so it's
+   *         only ever counted once towards each, and then all of them again
+   *         behind the prefix of the key type
+   */
+  private static String[] findIdentifiers(AEKey what) {
+    Set<String> ids = new LinkedHashSet<>();
+    ids.add(what.getId().toString());
+    // straight from the registry holder, without looking the id up again
+    if (what instanceof AEItemKey itemKey) {
+      itemKey
+        .getItem()
+        .builtInRegistryHolder()
+        .tags()
+        .forEach(tag -> ids.add(tag.location().toString()));
+    } else if (what instanceof AEFluidKey fluidKey) {
+      fluidKey
+        .getFluid()
+        .builtInRegistryHolder()
+        .tags()
+        .forEach(tag -> ids.add(tag.location().toString()));
+    }
+    // other key types have no common way to get tags, so only their id
+
+    String prefix = getTypePrefix(what.getType()) + ':';
+    int count = ids.size();
+    String[] result = ids.toArray(new String[count * 2]);
+    for (int i = 0; i < count; i++) {
+      result[count + i] = prefix + result[i];
+    }
+    return result;
+  }
+
+  private record ExpressionUse(String expression, SharedExpression shared) {}
+
+  /**
+   * A wildcard pattern that's kept counted, with the ids and tags it matched so
+   * far
+   */
+  private static class ResolvedPattern {
+    private final WildcardPattern matcher;
+    private final Set<String> identifiers = new ObjectOpenHashSet<>();
+    private long count;
+
+    private ResolvedPattern(WildcardPattern matcher) {
+      this.matcher = matcher;
+    }
+
+    private void offer(String id) {
+      if (this.matcher.matches(id))
+        this.identifiers.add(id);
+    }
+
+    private boolean matchesAny(String[] ids) {
+      for (String id : ids) {
+        if (this.identifiers.contains(id))
+          return true;
+      }
+      return false;
+    }
+  }
+}
@@ -42,9 +42,11 @@ import org.jetbrains.annotations.Nullable;
 import stone.mae2.MAE2;
 import stone.mae2.api.Tickable;
 import stone.mae2.api.Tickable.TickingEntry;
+import stone.mae2.bootstrap.MAE2Config.TickRates;
 import stone.mae2.parts.p2p.multi.MultiP2PTunnel;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -83,10 +85,14 @@ public class MultiP2PService implements IGridService, IGridServiceProvider {
     0);
   private final Random frequencyGenerator;
 
-  private final PriorityQueue<TickingEntry> tickingQueue = new PriorityQueue<>(
-    1);
+  // made on the first tickable, since most grids won't have any
+  private TickingWheel tickingWheel;
+  // every entry, including sleeping ones which aren't in the wheel
+  private final Reference2ReferenceMap<Tickable, TickingEntry> tickingEntries = new Reference2ReferenceOpenHashMap<>(
+    0);
   private boolean tickable = false;
   private long currentTick = 0;
+  private int entriesFiredLastTick = 0;
 
   public double[] transferredAmps;
   public boolean taxSatisfied = true;
@@ -127,20 +133,34 @@ public class MultiP2PService implements IGridService, IGridServiceProvider {
           }
         }
       }
-      if (this.tickingQueue.isEmpty())
+      if (this.tickingWheel == null || this.tickingWheel.isEmpty()) {
+        this.entriesFiredLastTick = 0;
         return;
+      }
       this.currentTick++;
-      while (this.tickingQueue.peek().getNextTick() <= this.currentTick) {
-        TickingEntry entry = this.tickingQueue.poll();
+      List<TickingEntry> due = this.tickingWheel.advance(this.currentTick);
+      this.entriesFiredLastTick = due.size();
+      for (int i = 0; i < due.size(); i++) {
+        TickingEntry entry = due.get(i);
         // MAE2.LOGGER.info("Ticking tunnel {} on tick {}", entry,
         // this.currentTick);
-        TickRateModulation mod = entry.getTickable().tick();
+        TickRateModulation mod;
+        if (TunnelStats.isEnabled()
+          && entry.getTickable() instanceof MultiP2PTunnel<?, ?, ?> tunnel) {
+          TunnelStats stats = tunnel.getStats();
+          long start = stats.startTick();
+          mod = entry.getTickable().tick();
+          stats.endTick(start);
+        } else {
+          mod = entry.getTickable().tick();
+        }
         if (mod != TickRateModulation.SLEEP) {
           entry.update(mod);
           // MAE2.LOGGER.info("Next scheduled tick {}", entry.getNextTick());
-          this.tickingQueue.add(entry);
+          this.tickingWheel.schedule(entry, this.currentTick);
         } else {
-          // TODO add support for waking up (can't wake up)
+          // dropped from the wheel until something alerts it
+          entry.sleep();
         }
       }
     }
@@ -159,8 +179,49 @@ public class MultiP2PService implements IGridService, IGridServiceProvider {
     this.tickable = true;
   }
 
+  /**
+   * Wakes up every sleeping tunnel, used when the grid boots or changes power
+   * state since tunnels can't transfer anything while the grid is down
+   */
   public void wakeInputTunnels() {
-    var tm = this.myGrid.getTickManager();
+    for (TickingEntry entry : this.tickingEntries.values()) {
+      if (entry.wake(this.currentTick)) {
+        this.tickingWheel.schedule(entry, this.currentTick);
+      }
+    }
+  }
+
+  /**
+   * Wakes up a sleeping tunnel, scheduling it for the next tick. Does nothing
+   * if the tunnel is already awake.
+   *
+   * @param tickable tunnel to wake up
+   */
+  public void alertTickable(Tickable tickable) {
+    TickingEntry entry = this.tickingEntries.get(tickable);
+    if (entry != null && entry.wake(this.currentTick)) {
+      this.tickingWheel.schedule(entry, this.currentTick);
+    }
+  }
+
+  /**
+   * @return every tunnel on this grid, for debugging
+   */
+  public List<MultiP2PTunnel<?, ?, ?>> getTunnels() {
+    List<MultiP2PTunnel<?, ?, ?>> tunnels = new ArrayList<>();
+    for (var freq2tunnelMap : this.attunement2frequency2tunnelMap.values()) {
+      tunnels.addAll(freq2tunnelMap.values());
+    }
+    return tunnels;
+  }
+
+  /**
+   * @return ticks in between the tickable's ticks, 0 if it's sleeping or
+   *         unknown
+   */
+  public int getTickRate(Tickable tickable) {
+    TickingEntry entry = this.tickingEntries.get(tickable);
+    return entry == null || entry.isSleeping() ? 0 : entry.getUpdateRate();
   }
 
   public MultiP2PTunnel<?, ?, ?> getTunnel(MultiP2PTunnel.Part part) {
@@ -180,7 +241,30 @@ public class MultiP2PService implements IGridService, IGridServiceProvider {
 
   public void addTickable(TickingEntry entry) {
     this.tickable = true;
-    this.tickingQueue.add(entry);
+    if (this.tickingWheel == null) {
+      TickRates rates = MAE2.CONFIG.parts().rates();
+      this.tickingWheel = new TickingWheel(
+        Math.max(
+          Math.max(rates.FEMultiP2PTunnel().maxRate(),
+            rates.EUMultiP2PTunnel().maxRate()),
+          Math.max(rates.ItemMultiP2PTunnel().maxRate(),
+            rates.FluidMultiP2PTunnel().maxRate())));
+    }
+    this.tickingEntries.put(entry.getTickable(), entry);
+    if (!entry.isSleeping())
+      this.tickingWheel.schedule(entry, this.currentTick);
+  }
+
+  /**
+   * Debug counter of how many tunnels were ticked on the last server tick
+   */
+  public int getEntriesFiredLastTick() { return this.entriesFiredLastTick; }
+
+  /**
+   * @return how many tunnels are scheduled to tick, not counting sleeping ones
+   */
+  public int getScheduledCount() {
+    return this.tickingWheel == null ? 0 : this.tickingWheel.size();
   }
 
   public void addTickable(Tickable tickable) {
@@ -213,6 +297,10 @@ public class MultiP2PService implements IGridService, IGridServiceProvider {
       MultiP2PTunnel tunnel = getTunnel(part);
       tunnel
         .addTunnel(part, savedData != null ? savedData.get(TAG_NAME) : null);
+      // new parts might bring in a saved buffer or new outputs to fill
+      if (tunnel instanceof Tickable tickable) {
+        alertTickable(tickable);
+      }
     }
   }
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.me.service;
+
+import stone.mae2.logic.expression.BinaryNode;
+import stone.mae2.logic.expression.CompiledExpression;
+import stone.mae2.logic.expression.ExpressionParser;
+import stone.mae2.logic.expression.FunctionNode;
+import stone.mae2.logic.expression.Node;
+import stone.mae2.logic.expression.TagNode;
+import stone.mae2.logic.expression.Token;
+import stone.mae2.logic.expression.UnaryNode;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An expression parsed once for every emitter on a grid using it, along with
+ * its latest result
+ *
+ * The result is reused until a count in the inventory index changes, so any
+ * number of emitters with the same expression cost one evaluation.
+ */
+public class SharedExpression {
+  private final String expression;
+  private final CompiledExpression compiled;
+  private final Set<String> patterns;
+  private final String error;
+
+  int users;
+  private long evaluatedVersion = -1;
+  private boolean result;
+
+  private SharedExpression(String expression, CompiledExpression compiled,
+    Set<String> patterns, String error) {
+    this.expression = expression;
+    this.compiled = compiled;
+    this.patterns = patterns;
+    this.error = error;
+  }
+
+  /**
+   * @param expression the normalized expression
+   * @param tokens     its tokens
+   * @return the parsed expression, or an invalid one remembering why it
+   *         couldn't be parsed
+   */
+  static SharedExpression parse(String expression, List<Token> tokens) {
+    try {
+      Node root = new ExpressionParser(tokens, InventoryIndexService::resolveTag)
+        .parse();
+      Set<String> patterns = new HashSet<>();
+      collectTagPatterns(root, patterns);
+      return new SharedExpression(expression, CompiledExpression.compile(root),
+        patterns, null);
+    } catch (RuntimeException e) {
+      return invalid(expression, e.getMessage());
+    }
+  }
+
+  static SharedExpression invalid(String expression, String error) {
+    return new SharedExpression(expression, null, Set.of(), error);
+  }
+
+  public String getExpression() {
+    return this.expression;
+  }
+
+  public boolean isValid() {
+    return this.compiled != null;
+  }
+
+  /**
+   * @return why the expression couldn't be parsed, or null if it could
+   */
+  public String getError() {
+    return this.error;
+  }
+
+  /**
+   * Every tag pattern the expression reads. The same set is handed out each
+   * time, so the inventory index can tell it apart from another expression's.
+   */
+  Set<String> getPatterns() {
+    return this.patterns;
+  }
+
+  /**
+   * @return the result of the expression, only evaluating it again if a count
+   *         in the index changed since the last time
+   */
+  public boolean evaluate(InventoryIndexService index) {
+    if (this.evaluatedVersion != index.getVersion()) {
+      this.result = this.compiled.evaluate(index);
+      // read after evaluating, the first count can rebuild the index
+      this.evaluatedVersion = index.getVersion();
+    }
+    return this.result;
+  }
+
+  private static void collectTagPatterns(Node node, Set<String> patterns) {
+    if (node instanceof TagNode tag) {
+      patterns.add(tag.getTag());
+    } else if (node instanceof BinaryNode binary) {
+      collectTagPatterns(binary.getLeft(), patterns);
+      collectTagPatterns(binary.getRight(), patterns);
+    } else if (node instanceof UnaryNode unary) {
+      collectTagPatterns(unary.getOperand(), patterns);
+    } else if (node instanceof FunctionNode function
+      && function.getFunction() != FunctionNode.Function.CRAFTABLE) {
+      // craftable doesn't read counts, the index alerts on craftable changes
+      // separately
+      for (Node argument : function.getArguments()) {
+        collectTagPatterns(argument, patterns);
+      }
+    }
+    // LiteralNode doesn't contain tag patterns
+  }
+}
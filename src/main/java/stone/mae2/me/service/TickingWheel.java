@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.me.service;
+
+import stone.mae2.api.Tickable.TickingEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel of {@link TickingEntry}s keyed by their next tick
+ *
+ * Each slot holds the entries due on the ticks that land on it, so scheduling
+ * and firing an entry are both constant time. Entries due further out than the
+ * wheel spans wait in an overflow list, which gets moved into the wheel once
+ * per revolution.
+ */
+final class TickingWheel {
+  // keeps a silly max rate config from allocating a giant wheel, anything
+  // slower just goes through the overflow
+  private static final int MAX_SPAN = 1024;
+
+  private final ArrayList<TickingEntry>[] slots;
+  private final int mask;
+  private final List<TickingEntry> overflow = new ArrayList<>();
+  // swapped in for the slot being fired, so entries rescheduled onto the same
+  // slot don't get fired twice
+  private ArrayList<TickingEntry> spare = new ArrayList<>();
+  private int size;
+
+  /**
+   * @param span the most ticks ahead an entry will normally be scheduled
+   */
+  @SuppressWarnings("unchecked")
+  TickingWheel(int span) {
+    int length = Integer.highestOneBit(Math.min(Math.max(span, 1), MAX_SPAN))
+      << 1;
+    this.slots = new ArrayList[length];
+    for (int i = 0; i < length; i++) {
+      this.slots[i] = new ArrayList<>();
+    }
+    this.mask = length - 1;
+  }
+
+  boolean isEmpty() { return this.size == 0; }
+
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Schedules an entry for its next tick
+   *
+   * @param entry       entry to schedule
+   * @param currentTick the last tick that was fired
+   */
+  void schedule(TickingEntry entry, long currentTick) {
+    long nextTick = Math.max(entry.getNextTick(), currentTick + 1);
+    if (nextTick - currentTick > this.slots.length) {
+      this.overflow.add(entry);
+    } else {
+      this.slots[(int) (nextTick & this.mask)].add(entry);
+    }
+    this.size++;
+  }
+
+  /**
+   * Takes every entry due on the given tick out of the wheel. Must be called
+   * for every tick in order.
+   *
+   * @param tick tick being fired
+   * @return the due entries, only valid until the next call
+   */
+  List<TickingEntry> advance(long tick) {
+    this.spare.clear();
+    if ((tick & this.mask) == 0 && !this.overflow.isEmpty()) {
+      cascade(tick);
+    }
+    int index = (int) (tick & this.mask);
+    ArrayList<TickingEntry> due = this.slots[index];
+    this.slots[index] = this.spare;
+    this.spare = due;
+    this.size -= due.size();
+    return due;
+  }
+
+  /**
+   * Moves overflowing entries that are now within a revolution into the wheel
+   */
+  private void cascade(long tick) {
+    int i = 0;
+    while (i < this.overflow.size()) {
+      TickingEntry entry = this.overflow.get(i);
+      long nextTick = Math.max(entry.getNextTick(), tick);
+      if (nextTick - tick < this.slots.length) {
+        // swap remove, order doesn't matter here
+        int last = this.overflow.size() - 1;
+        this.overflow.set(i, this.overflow.get(last));
+        this.overflow.remove(last);
+        this.slots[(int) (nextTick & this.mask)].add(entry);
+      } else {
+        i++;
+      }
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.me.service;
+
+/**
+ * Profiling counters for a single multi P2P tunnel
+ *
+ * Only records anything while profiling is turned on through
+ * {@code /mae2 perf start}, otherwise every record call is a single static
+ * flag check. Counters are reset lazily the first time a tunnel records after
+ * profiling is restarted, so starting doesn't need to find every tunnel.
+ */
+public final class TunnelStats {
+  private static boolean isEnabled = false;
+  private static int generation = 0;
+
+  private int myGeneration = -1;
+  private long tickNanos;
+  private long ticks;
+  private long handlerNanos;
+  private long handlerCalls;
+  // handler time spent outside of ticks, so it's not counted twice in totals
+  private long untickedHandlerNanos;
+  private long transferred;
+  private boolean isTicking;
+
+  public static boolean isEnabled() { return isEnabled; }
+
+  /**
+   * Starts a fresh profiling window, throwing away any old counters
+   */
+  public static void start() {
+    isEnabled = true;
+    generation++;
+  }
+
+  public static void stop() {
+    isEnabled = false;
+  }
+
+  private void refresh() {
+    if (this.myGeneration != generation) {
+      this.myGeneration = generation;
+      this.tickNanos = 0;
+      this.ticks = 0;
+      this.handlerNanos = 0;
+      this.handlerCalls = 0;
+      this.untickedHandlerNanos = 0;
+      this.transferred = 0;
+    }
+  }
+
+  /**
+   * @return start time to hand back to {@link #endTick(long)}
+   */
+  public long startTick() {
+    this.isTicking = true;
+    return System.nanoTime();
+  }
+
+  public void endTick(long start) {
+    this.isTicking = false;
+    refresh();
+    this.tickNanos += System.nanoTime() - start;
+    this.ticks++;
+  }
+
+  public void recordHandlerCall(long nanos) {
+    refresh();
+    this.handlerNanos += nanos;
+    this.handlerCalls++;
+    if (!this.isTicking)
+      this.untickedHandlerNanos += nanos;
+  }
+
+  public void recordTransferred(long amount) {
+    refresh();
+    this.transferred += amount;
+  }
+
+  /**
+   * @return if anything was recorded in the current profiling window
+   */
+  public boolean isCurrent() { return this.myGeneration == generation; }
+
+  public long getTickNanos() { return isCurrent() ? this.tickNanos : 0; }
+
+  public long getTicks() { return isCurrent() ? this.ticks : 0; }
+
+  public long getHandlerNanos() { return isCurrent() ? this.handlerNanos : 0; }
+
+  public long getHandlerCalls() { return isCurrent() ? this.handlerCalls : 0; }
+
+  public long getTransferred() { return isCurrent() ? this.transferred : 0; }
+
+  /**
+   * @return total time spent in this tunnel, ticking and in handlers
+   */
+  public long getTotalNanos() {
+    return isCurrent() ? this.tickNanos + this.untickedHandlerNanos : 0;
+  }
+}
@@ -21,6 +21,7 @@ package stone.mae2.mixins;
 import appeng.api.config.Actionable;
 import appeng.api.implementations.blockentities.ICraftingMachine;
 import appeng.api.networking.IManagedGridNode;
+import appeng.api.networking.crafting.ICraftingProvider;
 import appeng.api.networking.security.IActionSource;
 import appeng.api.parts.IPart;
 import appeng.api.parts.IPartHost;
@@ -101,7 +102,8 @@ public abstract class PatternProviderLogicMixin {
       var craftingMachine = ICraftingMachine
         .of(level, adjPos, adjBeSide, adjBe);
       if (craftingMachine instanceof PatternP2PTunnelLogic p2pLogic) {
-        p2pLogic.refreshInputs();
+        p2pLogic
+          .refreshInputs((ICraftingProvider) (Object) this);
       }
     }
 
@@ -4,8 +4,11 @@ import appeng.api.config.RedstoneMode;
 import appeng.api.config.Setting;
 import appeng.api.config.Settings;
 import appeng.api.networking.IGridNode;
+import appeng.api.networking.IGridNodeListener;
+import appeng.api.networking.crafting.ICraftingWatcherNode;
 import appeng.api.networking.security.IActionSource;
-import appeng.api.networking.storage.IStorageService;
+import appeng.api.networking.storage.IStackWatcher;
+import appeng.api.networking.storage.IStorageWatcherNode;
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.networking.ticking.TickingRequest;
@@ -13,40 +16,24 @@ import appeng.api.parts.IPartItem;
 import appeng.api.parts.IPartModel;
 import appeng.api.stacks.AEKey;
 import appeng.api.util.IConfigManager;
-import appeng.api.stacks.KeyCounter;
 import appeng.items.parts.PartModels;
 import appeng.me.helpers.MachineSource;
 import appeng.menu.MenuOpener;
 import appeng.menu.locator.MenuLocators;
 import appeng.parts.PartModel;
 import appeng.parts.automation.AbstractLevelEmitterPart;
-import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.tags.TagKey;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.inventory.MenuType;
-import net.minecraft.world.item.Item;
 import net.minecraft.world.phys.Vec3;
 import stone.mae2.MAE2;
-import stone.mae2.logic.expression.Evaluator;
-import stone.mae2.logic.expression.ExpressionParser;
-import stone.mae2.logic.expression.InventoryContext;
-import stone.mae2.logic.expression.Node;
-import stone.mae2.logic.expression.Tokenizer;
-import stone.mae2.logic.expression.Token;
-
-import java.util.HashMap;
-import java.util.HashSet;
+import stone.mae2.me.service.InventoryIndexService;
+import stone.mae2.me.service.SharedExpression;
+
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
-import stone.mae2.logic.expression.BinaryNode;
-import stone.mae2.logic.expression.TagNode;
 import stone.mae2.menu.AdvancedLevelEmitterMenu;
 
 public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
@@ -77,7 +64,6 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
     }
 
     private String expression = "";
-    private Node parsedExpression;
     private boolean lastRedstoneState;
     private final IActionSource source;
     private String lastErrorMessage; // Track last error to prevent spam
@@ -87,12 +73,11 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
         super(partItem);
         this.source = new MachineSource(this);
         
-        // Register as tickable service with fixed 20-tick rate
+        // Sleeps until the inventory index alerts it about a count it reads changing
         getMainNode().addService(IGridTickable.class, new IGridTickable() {
             @Override
             public TickingRequest getTickingRequest(IGridNode node) {
-                // Fixed 20-tick interval (once per second at 20 TPS)
-                return new TickingRequest(20, 20, false, false);
+                return new TickingRequest(1, 20, false, true);
             }
             
             @Override
@@ -107,7 +92,52 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
                 
                 MAE2.LOGGER.debug("AdvancedLevelEmitterPart tick called - ticksSinceLastCall: {}", ticksSinceLastCall);
                 updateRedstoneOutput();
-                return TickRateModulation.SAME;  // Keep constant 20-tick rate
+                return TickRateModulation.SLEEP;
+            }
+        });
+
+        // Feeds the grid's inventory index if it picks this emitter's watcher
+        getMainNode().addService(IStorageWatcherNode.class, new IStorageWatcherNode() {
+            @Override
+            public void updateWatcher(IStackWatcher newWatcher) {
+                IGridNode node = getGridNode();
+                if (node != null) {
+                    InventoryIndexService index = InventoryIndexService.get(node.getGrid());
+                    index.offerWatcher(node, newWatcher);
+                    index.useExpression(node, expression);
+                }
+            }
+
+            @Override
+            public void onStackChange(AEKey what, long amount) {
+                IGridNode node = getGridNode();
+                if (node != null) {
+                    InventoryIndexService.get(node.getGrid()).onStackChange(node, what, amount);
+                }
+            }
+        });
+
+        // Tells the grid's inventory index when craftables change, for craftable(...)
+        getMainNode().addService(ICraftingWatcherNode.class, new ICraftingWatcherNode() {
+            @Override
+            public void updateWatcher(IStackWatcher newWatcher) {
+                IGridNode node = getGridNode();
+                if (node != null) {
+                    InventoryIndexService.get(node.getGrid()).offerCraftingWatcher(node, newWatcher);
+                }
+            }
+
+            @Override
+            public void onRequestChange(AEKey what) {
+                // Crafting requests don't matter to expressions
+            }
+
+            @Override
+            public void onCraftableChange(AEKey what) {
+                IGridNode node = getGridNode();
+                if (node != null) {
+                    InventoryIndexService.get(node.getGrid()).onCraftableChange(node);
+                }
             }
         });
     }
@@ -142,7 +172,6 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
         super.readFromNBT(data);
         this.expression = data.getString("expression");
         this.lastRedstoneState = data.getBoolean("lastRedstoneState");
-        parseExpression();
         
         MAE2.LOGGER.info("AdvancedLevelEmitterPart readFromNBT - expression: {}, lastRedstoneState: {}", 
             this.expression, this.lastRedstoneState);
@@ -205,38 +234,43 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
     }
 
     /**
-     * Called every 20 ticks by the grid tick manager to evaluate the expression
-     * and update redstone output if needed.
+     * Called by the grid tick manager after the inventory index alerts this
+     * emitter, to evaluate the expression and update redstone output if needed.
      */
     private void updateRedstoneOutput() {
-        if (parsedExpression == null) {
-            MAE2.LOGGER.debug("updateRedstoneOutput: No expression configured");
-            return;
-        }
-
         IGridNode node = getGridNode();
         if (node == null || !node.isActive()) {
             MAE2.LOGGER.debug("updateRedstoneOutput: Node null or inactive");
             return;
         }
 
-        IStorageService storageService = node.getGrid().getService(IStorageService.class);
-        if (storageService == null) {
-            MAE2.LOGGER.debug("updateRedstoneOutput: No storage service");
+        InventoryIndexService index = InventoryIndexService.get(node.getGrid());
+        if (index == null) {
+            MAE2.LOGGER.debug("updateRedstoneOutput: No inventory index");
             return;
         }
-        
-        // Check if storage service has inventory available
-        KeyCounter inventory = storageService.getCachedInventory();
-        if (inventory == null) {
-            MAE2.LOGGER.debug("updateRedstoneOutput: No cached inventory available");
+        // Does nothing unless the expression changed or the node moved grids
+        SharedExpression shared = index.useExpression(node, expression);
+        if (shared == null) {
+            MAE2.LOGGER.debug("updateRedstoneOutput: No expression configured");
+            return;
+        }
+        if (!shared.isValid()) {
+            if (lastErrorMessage == null || !lastErrorMessage.equals(shared.getError())) {
+                MAE2.LOGGER.error("Failed to parse expression '{}': {}", expression, shared.getError());
+                lastErrorMessage = shared.getError();
+            }
+            // An expression that can't be parsed never emits
+            if (lastRedstoneState) {
+                lastRedstoneState = false;
+                updateState();
+            }
             return;
         }
 
-        InventoryContext context = new AE2InventoryContext(storageService);
         try {
-            Evaluator evaluator = new Evaluator(context);
-            boolean result = evaluator.evaluate(parsedExpression);
+            // Shared with every emitter on the grid with the same expression
+            boolean result = shared.evaluate(index);
             
             // Clear error state on successful evaluation
             lastErrorMessage = null;
@@ -266,7 +300,7 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
         }
         
         // Return false if no expression is configured (prevents default emission)
-        if (parsedExpression == null || expression == null || expression.trim().isEmpty()) {
+        if (expression == null || expression.trim().isEmpty()) {
             return false;
         }
         
@@ -285,14 +319,15 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
     @Override
     protected boolean getDirectOutput() {
         // Return cached state - this is called when checking redstone output
-        // The actual evaluation happens in updateRedstoneOutput() every 20 ticks
+        // The actual evaluation happens in updateRedstoneOutput() when alerted
         return lastRedstoneState;
     }
 
     public void setExpression(String expression) {
         this.expression = expression;
         lastErrorMessage = null; // Clear error state when expression changes
-        parseExpression();
+        // The index alerts this emitter once it knows about the new patterns
+        getMainNode().ifPresent((grid, node) -> InventoryIndexService.get(grid).useExpression(node, expression));
         getHost().markForSave();
     }
 
@@ -300,29 +335,20 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
         return this.expression;
     }
 
-    private void parseExpression() {
-        try {
-            if (expression == null || expression.trim().isEmpty()) {
-                this.parsedExpression = null;
-                return;
-            }
-            Tokenizer tokenizer = new Tokenizer(expression);
-            List<Token> tokens = tokenizer.tokenize();
-            ExpressionParser parser = new ExpressionParser(tokens);
-            this.parsedExpression = parser.parse();
-        } catch (Exception e) {
-            this.parsedExpression = null;
-            MAE2.LOGGER.error("Failed to parse expression: {}", expression, e);
-        }
-    }
-
     @Override
     protected void configureWatchers() {
-        // Advanced emitter doesn't use watchers - it evaluates via 20-tick cycle
+        // Watching is done by the grid's inventory index, which alerts this emitter
         // Always call updateState to maintain visual consistency
         updateState();
     }
 
+    @Override
+    protected void onMainNodeStateChanged(IGridNodeListener.State reason) {
+        super.onMainNodeStateChanged(reason);
+        // Nothing was evaluated while the node was down
+        getMainNode().ifPresent((grid, node) -> grid.getTickManager().alertDevice(node));
+    }
+
     @Override
     public IPartModel getStaticModels() {
         // Match AE2's StorageLevelEmitterPart logic
@@ -334,117 +360,4 @@ public class AdvancedLevelEmitterPart extends AbstractLevelEmitterPart {
             return this.isLevelEmitterOn() ? MODEL_ON_OFF : MODEL_OFF_OFF;
         }
     }
-
-    /**
-     * Single-pass inventory scanner that correctly aggregates tag counts.
-     * Each item is counted once per unique tag pattern in the expression.
-     * Reuses collections to minimize GC pressure.
-     */
-    private class AE2InventoryContext implements InventoryContext {
-        private final Map<String, Long> aggregatedCounts = new HashMap<>();
-        private final Set<String> tagPatterns = new HashSet<>();
-        private final Map<String, Pattern> compiledPatterns = new HashMap<>();
-        private final Set<String> itemIdentifiers = new HashSet<>();
-        private final IStorageService storageService;
-        private boolean scanned = false;
-
-        public AE2InventoryContext(IStorageService storageService) {
-            this.storageService = storageService;
-        }
-
-        @Override
-        public long getCount(String tagPattern) {
-            if (!scanned) {
-                scanInventory();
-                scanned = true;
-            }
-            return aggregatedCounts.getOrDefault(tagPattern, 0L);
-        }
-
-        private void scanInventory() {
-            if (parsedExpression == null) {
-                return;
-            }
-
-            // Clear and reuse collections
-            aggregatedCounts.clear();
-            tagPatterns.clear();
-            compiledPatterns.clear();
-
-            // Collect all unique tag patterns from the expression
-            collectTagPatterns(parsedExpression, tagPatterns);
-
-            // Compile wildcard patterns once
-            for (String pattern : tagPatterns) {
-                if (pattern.contains("*")) {
-                    String regex = pattern.replace("*", ".*");
-                    compiledPatterns.put(pattern, Pattern.compile(regex));
-                }
-            }
-
-            // Single pass through inventory
-            KeyCounter inventory = storageService.getCachedInventory();
-            for (var entry : inventory) {
-                AEKey key = entry.getKey();
-                long amount = entry.getLongValue();
-                ResourceLocation itemId = key.getId();
-
-                // Reuse itemIdentifiers set - contains item ID + all tag locations
-                itemIdentifiers.clear();
-                itemIdentifiers.add(itemId.toString());
-                
-                // Get item tags from Minecraft registry (cosmolite-compatible)
-                try {
-                    Item item = BuiltInRegistries.ITEM.get(itemId);
-                    if (item != null) {
-                        // Get all tags this item belongs to
-                        Stream<TagKey<Item>> tags = item.builtInRegistryHolder().tags();
-                        tags.forEach(tagKey -> {
-                            // Add tag location as identifier (e.g., "minecraft:logs")
-                            itemIdentifiers.add(tagKey.location().toString());
-                        });
-                    }
-                } catch (Exception e) {
-                    // If we can't get tags, just use item ID
-                    MAE2.LOGGER.debug("Could not get tags for item: {}", itemId, e);
-                }
-
-                // For each tag pattern in the expression, check if this item matches
-                // Each item is counted at most once per pattern
-                for (String pattern : tagPatterns) {
-                    boolean matches = false;
-
-                    if (compiledPatterns.containsKey(pattern)) {
-                        // Wildcard pattern - check if any identifier matches
-                        Pattern regex = compiledPatterns.get(pattern);
-                        for (String identifier : itemIdentifiers) {
-                            if (regex.matcher(identifier).matches()) {
-                                matches = true;
-                                break;
-                            }
-                        }
-                    } else {
-                        // Exact match against item ID or any tag
-                        matches = itemIdentifiers.contains(pattern);
-                    }
-
-                    if (matches) {
-                        aggregatedCounts.put(pattern,
-                                aggregatedCounts.getOrDefault(pattern, 0L) + amount);
-                    }
-                }
-            }
-        }
-
-        private void collectTagPatterns(Node node, Set<String> patterns) {
-            if (node instanceof TagNode) {
-                patterns.add(((TagNode) node).getTag());
-            } else if (node instanceof BinaryNode) {
-                BinaryNode binary = (BinaryNode) node;
-                collectTagPatterns(binary.getLeft(), patterns);
-                collectTagPatterns(binary.getRight(), patterns);
-            }
-            // LiteralNode doesn't contain tag patterns
-        }
-    }
 }
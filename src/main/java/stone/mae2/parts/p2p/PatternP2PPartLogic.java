@@ -69,6 +69,7 @@ public class PatternP2PPartLogic implements IGridTickable {
     }
 
     if (sendList.isEmpty()) {
+      this.part.onSendListDrained();
       return TickRateModulation.SLEEP;
     }
 
@@ -125,6 +126,11 @@ public class PatternP2PPartLogic implements IGridTickable {
     IManagedGridNode getMainNode();
 
     BlockEntity getBlockEntity();
+
+    /**
+     * Called once everything that didn't fit when pushing a pattern was sent
+     */
+    default void onSendListDrained() {}
   }
 
 }
@@ -19,6 +19,12 @@ import appeng.helpers.patternprovider.PatternProviderLogicHost;
 import appeng.helpers.patternprovider.PatternProviderTarget;
 import appeng.helpers.patternprovider.PatternProviderTargetCache;
 import appeng.util.ConfigManager;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
@@ -26,27 +32,63 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.LazyOptional;
 import org.checkerframework.checker.units.qual.C;
+import org.jetbrains.annotations.Nullable;
 
 import stone.mae2.bootstrap.MAE2Items;
 import stone.mae2.util.LoadedModsHelper;
 import stone.mae2.util.TransHelper;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class PatternP2PTunnelLogic implements ICraftingMachine {
 
   protected final PatternP2PTunnel tunnel;
-  protected PatternProviderTargetCache caches[];
-  protected Set<AEKey> patternInputs;
+  /**
+   * Outputs in round robin order, with their caches at the same index
+   */
+  private final List<Target> outputs = new ArrayList<>();
+  private final List<PatternProviderTargetCache> caches = new ArrayList<>();
+  private final Reference2IntOpenHashMap<Target> outputIndices = new Reference2IntOpenHashMap<>();
+
+  /**
+   * How many pattern inputs of the sources feeding this tunnel use each key.
+   * Keys stay in {@link #patternInputs} while they're used at least once.
+   */
+  private final Object2IntOpenHashMap<AEKey> inputCounts = new Object2IntOpenHashMap<>();
+  protected final Set<AEKey> patternInputs = this.inputCounts.keySet();
+  /**
+   * What each source (a crafting provider or an upstream pattern tunnel) added
+   * to {@link #inputCounts} when it was last scanned
+   */
+  private final Map<Object, Object2IntOpenHashMap<AEKey>> contributions = new Reference2ObjectOpenHashMap<>();
+  /**
+   * The patterns each provider had when it was last looked at, counted since a
+   * provider can hold the same pattern twice. Only patterns that were added or
+   * removed since get their inputs added to or taken out of its contribution.
+   */
+  private final Map<ICraftingProvider, Object2IntOpenHashMap<IPatternDetails>> providerPatterns = new Reference2ObjectOpenHashMap<>();
   private int lastOutputIndex = 0;
+  /**
+   * Outputs known to not take anything right now, either from rejecting a push
+   * this tick or from {@link #waitingOutputs}
+   */
+  private final BitSet busyOutputs = new BitSet();
+  /**
+   * Outputs waiting for their send list to drain
+   */
+  private final BitSet waitingOutputs = new BitSet();
+  private long busyTick = -1;
 
   public static boolean isBlocking;
   public static BlockingMode blockingMode;
 
   public PatternP2PTunnelLogic(PatternP2PTunnel tunnel) {
     this.tunnel = tunnel;
+    this.outputIndices.defaultReturnValue(-1);
     this.refreshInputs();
     this.refreshOutputs();
   }
@@ -66,52 +108,106 @@ public class PatternP2PTunnelLogic implements ICraftingMachine {
       return false;
     try {
       isRecursive = true;
-      List<? extends Target> outputs = tunnel.getPatternTunnelOutputs();
-      if (outputs.size() <= 0)
+      int size = this.outputs.size();
+      if (size <= 0)
         return false;
+      refreshBusyOutputs();
       boolean isExternal = pattern.supportsPushInputsToExternalInventory();
-      int i = lastOutputIndex;
-      do {
-        i = (i + 1) % outputs.size();
-        Target output = outputs.get(i);
-        if (!output.isValid())
-          continue;
-        ICraftingMachine craftingMachine = ICraftingMachine
-          .of(output.level(), output.pos(), output.side(),
-            output.level().getBlockEntity(output.pos()));
-        if (craftingMachine != null && craftingMachine.acceptsPlans()) {
-          if (craftingMachine
-            .pushPattern(pattern, ingredients, output.side())) {
-            lastOutputIndex = i;
-            return true;
-          }
-          continue;
-        }
-
-        if (isExternal) {
-          final PatternProviderTarget target = caches[i].find();
-          if (target == null
-            || shouldBlock(isBlocking, target, this.patternInputs))
-            continue;
-          if (targetAcceptsAll(target, ingredients)) {
-            pattern
-              .pushInputsToExternalInventory(ingredients, (what, amount) -> {
-                var inserted = target.insert(what, amount, Actionable.MODULATE);
-                if (inserted < amount) {
-                  output.addToSendList(what, amount - inserted);
-                }
-              });
-            lastOutputIndex = i;
-            return true;
-          }
+      int i = nextFreeOutput((lastOutputIndex + 1) % size);
+      while (i >= 0) {
+        if (pushTo(i, pattern, ingredients, isExternal)) {
+          lastOutputIndex = i;
+          return true;
         }
-      } while (i != lastOutputIndex);
+        i = nextFreeOutput((i + 1) % size);
+      }
     } finally {
       isRecursive = false;
     }
     return false;
   }
 
+  /**
+   * Tries to push a pattern into a single output, marking it as busy if it
+   * can't take it
+   */
+  private boolean pushTo(int index, IPatternDetails pattern,
+    KeyCounter[] ingredients, boolean isExternal) {
+    Target output = this.outputs.get(index);
+    if (!output.isValid()) {
+      // stays busy until its send list is empty
+      this.busyOutputs.set(index);
+      this.waitingOutputs.set(index);
+      return false;
+    }
+    ICraftingMachine craftingMachine = output.getTargetCraftingMachine();
+    if (craftingMachine != null && craftingMachine.acceptsPlans()) {
+      if (craftingMachine.pushPattern(pattern, ingredients, output.side()))
+        return true;
+      this.busyOutputs.set(index);
+      return false;
+    }
+
+    if (isExternal) {
+      final PatternProviderTarget target = getCache(index).find();
+      if (target != null
+        && !shouldBlock(isBlocking, target, this.patternInputs)
+        && targetAcceptsAll(target, ingredients)) {
+        pattern
+          .pushInputsToExternalInventory(ingredients, (what, amount) -> {
+            var inserted = target.insert(what, amount, Actionable.MODULATE);
+            if (inserted < amount) {
+              output.addToSendList(what, amount - inserted);
+            }
+          });
+        return true;
+      }
+    }
+    this.busyOutputs.set(index);
+    return false;
+  }
+
+  /**
+   * Forgets which outputs were busy once a new tick starts, except the ones
+   * waiting on their send list
+   *
+   * Outputs getting emptied by the machine behind them doesn't cause any kind
+   * of update, so a rejection is only trusted for the tick it happened in.
+   */
+  private void refreshBusyOutputs() {
+    long tick = this.outputs.get(0).level().getGameTime();
+    if (tick != this.busyTick) {
+      this.busyTick = tick;
+      this.busyOutputs.clear();
+      this.busyOutputs.or(this.waitingOutputs);
+    }
+  }
+
+  /**
+   * @return the next output from the given index onwards, wrapping around,
+   *         that isn't known to be busy, -1 if they all are
+   */
+  private int nextFreeOutput(int from) {
+    int size = this.outputs.size();
+    int i = this.busyOutputs.nextClearBit(from);
+    if (i < size)
+      return i;
+    i = this.busyOutputs.nextClearBit(0);
+    return i < from ? i : -1;
+  }
+
+  /**
+   * Lets an output be pushed to again, called when the block it faces changes
+   * or its send list drains
+   */
+  public void onOutputChanged(Target output) {
+    int index = this.outputIndices.getInt(output);
+    if (index >= 0) {
+      this.busyOutputs.clear(index);
+      this.waitingOutputs.clear(index);
+    }
+  }
+
   /**
    * Checks if the target should block more patterns being input or not
    * 
@@ -127,67 +223,307 @@ public class PatternP2PTunnelLogic implements ICraftingMachine {
             : target.containsPatternInput(inputs));
   }
 
-  // TODO make this more incremental instead of resetting everything on any
-  // change
+  /**
+   * Resyncs the outputs with every output of the tunnel, use
+   * {@link #addOutput(Target)} and {@link #removeOutput(Target)} when only one
+   * changed
+   */
   public void refreshOutputs() {
     List<? extends Target> outputs = tunnel.getPatternTunnelOutputs();
-    if (outputs.size() == 0)
+    Set<Target> current = new ReferenceOpenHashSet<>(outputs);
+    for (int i = this.outputs.size() - 1; i >= 0; i--) {
+      Target output = this.outputs.get(i);
+      if (!current.contains(output))
+        removeOutput(output);
+    }
+    for (Target output : outputs) {
+      addOutput(output);
+    }
+  }
+
+  /**
+   * Adds an output to the end of the round robin, does nothing if it's already
+   * there
+   */
+  public void addOutput(Target output) {
+    if (this.outputIndices.containsKey(output))
       return;
-    this.caches = new PatternProviderTargetCache[outputs.size()];
-    for (int i = 0; i < this.caches.length; i++) {
-      Target output = outputs.get(i);
-      this.caches[i] = output.getCache();
+    int index = this.outputs.size();
+    this.outputIndices.put(output, index);
+    this.outputs.add(output);
+    this.caches.add(output.getCache());
+    this.busyOutputs.clear(index);
+    this.waitingOutputs.clear(index);
+  }
+
+  /**
+   * Removes an output by moving the last output into its place, so the round
+   * robin keeps going from the same output
+   */
+  public void removeOutput(Target output) {
+    int index = this.outputIndices.removeInt(output);
+    if (index < 0)
+      return;
+    int last = this.outputs.size() - 1;
+    if (index != last) {
+      Target moved = this.outputs.get(last);
+      this.outputs.set(index, moved);
+      this.caches.set(index, this.caches.get(last));
+      this.outputIndices.put(moved, index);
+      this.busyOutputs.set(index, this.busyOutputs.get(last));
+      this.waitingOutputs.set(index, this.waitingOutputs.get(last));
+    }
+    this.busyOutputs.clear(last);
+    this.waitingOutputs.clear(last);
+    this.outputs.remove(last);
+    this.caches.remove(last);
+    if (this.lastOutputIndex == last) {
+      this.lastOutputIndex = index;
+    }
+    if (this.lastOutputIndex >= this.outputs.size()) {
+      this.lastOutputIndex = 0;
     }
-    this.lastOutputIndex = this.lastOutputIndex % outputs.size();
   }
 
-  // TODO make this more incremental instead of resetting everything on any
-  // change
+  private PatternProviderTargetCache getCache(int index) {
+    PatternProviderTargetCache cache = this.caches.get(index);
+    if (cache == null) {
+      // parts only make their cache once they're in the world, which can be
+      // after they've joined the tunnel
+      cache = this.outputs.get(index).getCache();
+      this.caches.set(index, cache);
+    }
+    return cache;
+  }
+
+  /**
+   * Brings the pattern inputs in line with the sources currently feeding this
+   * tunnel
+   *
+   * Sources that were already known keep their contribution, since providers
+   * tell us about their own pattern changes through
+   * {@link #refreshInputs(ICraftingProvider)}. Only new sources get scanned,
+   * and only the resulting change is passed on to chained tunnels.
+   */
   public void refreshInputs() {
     if (this.isRecursive)
       return;
     try {
       this.isRecursive = true;
-      this.patternInputs = new HashSet<>();
+      Object2IntOpenHashMap<AEKey> delta = new Object2IntOpenHashMap<>();
+      Set<Object> sources = new ReferenceOpenHashSet<>();
       for (Target input : tunnel.getPatternTunnelInputs()) {
-        ICraftingProvider provider = input.getTargetCraftingProvider();
-        if (provider == null) {
-          ICraftingMachine maybeMachine = ICraftingMachine
-            .of(input.getTargetBlockEntity(), input.side());
-          if (maybeMachine != null
-            && maybeMachine instanceof PatternP2PTunnelLogic inputLogic) {
-            // technically a tunnel could connect to itself which will waste
-            // some
-            // time adding known duplicates, but it won't break anything and
-            // there
-            // shouldn't be a reason for players to do that in the first place
-            this.patternInputs.addAll(inputLogic.patternInputs);
-          }
+        Object source = getSource(input);
+        // technically a tunnel could connect to itself, but it'd only ever be
+        // feeding itself its own inputs
+        if (source == null || source == this)
           continue;
+        sources.add(source);
+        if (!this.contributions.containsKey(source)) {
+          setContribution(source, computeContribution(source), delta);
         }
-        for (IPatternDetails pattern : provider.getAvailablePatterns()) {
-          for (IInput ingredient : pattern.getInputs()) {
-            for (GenericStack ingredientStack : ingredient
-              .getPossibleInputs()) {
-              this.patternInputs.add(ingredientStack.what().dropSecondary());
-            }
-          }
+      }
+      for (Object source : new ArrayList<>(this.contributions.keySet())) {
+        if (!sources.contains(source)) {
+          setContribution(source, null, delta);
         }
       }
+      applyDelta(delta);
+    } finally {
+      this.isRecursive = false;
+    }
+  }
 
-      for (Target output : tunnel.getPatternTunnelOutputs()) {
-        ICraftingMachine maybeMachine = ICraftingMachine
-          .of(output.getTargetBlockEntity(), output.side());
-        if (maybeMachine != null
-          && maybeMachine instanceof PatternP2PTunnelLogic outputLogic) {
-          outputLogic.refreshInputs();
-        }
+  /**
+   * Updates a single provider's contribution after its patterns changed
+   *
+   * Its pattern list is diffed against the last one, so only the inputs of
+   * patterns that were added or removed get counted.
+   *
+   * @param provider the provider feeding this tunnel whose patterns changed
+   */
+  public void refreshInputs(ICraftingProvider provider) {
+    if (this.isRecursive)
+      return;
+    Object2IntOpenHashMap<AEKey> contribution = this.contributions
+      .get(provider);
+    Object2IntOpenHashMap<IPatternDetails> known = this.providerPatterns
+      .get(provider);
+    if (contribution == null || known == null) {
+      // must be newly attached, so check every input
+      refreshInputs();
+      return;
+    }
+    try {
+      this.isRecursive = true;
+      Object2IntOpenHashMap<IPatternDetails> current = countPatterns(provider);
+      Object2IntOpenHashMap<AEKey> delta = new Object2IntOpenHashMap<>();
+      for (var entry : Object2IntMaps.fastIterable(current)) {
+        int change = entry.getIntValue() - known.getInt(entry.getKey());
+        if (change != 0)
+          addPatternInputs(entry.getKey(), change, contribution, delta);
+      }
+      for (var entry : Object2IntMaps.fastIterable(known)) {
+        if (!current.containsKey(entry.getKey()))
+          addPatternInputs(entry.getKey(), -entry.getIntValue(), contribution,
+            delta);
+      }
+      this.providerPatterns.put(provider, current);
+      applyDelta(delta);
+    } finally {
+      this.isRecursive = false;
+    }
+  }
+
+  private static Object2IntOpenHashMap<IPatternDetails> countPatterns(
+    ICraftingProvider provider) {
+    Object2IntOpenHashMap<IPatternDetails> patterns = new Object2IntOpenHashMap<>();
+    for (IPatternDetails pattern : provider.getAvailablePatterns()) {
+      patterns.addTo(pattern, 1);
+    }
+    return patterns;
+  }
+
+  /**
+   * Adds (or takes away, with a negative count) a pattern's inputs to a
+   * contribution, collecting the change per key if there's somewhere to
+   */
+  private static void addPatternInputs(IPatternDetails pattern, int count,
+    Object2IntOpenHashMap<AEKey> contribution,
+    @Nullable Object2IntOpenHashMap<AEKey> delta) {
+    for (IInput ingredient : pattern.getInputs()) {
+      for (GenericStack ingredientStack : ingredient.getPossibleInputs()) {
+        AEKey key = ingredientStack.what().dropSecondary();
+        if (contribution.addTo(key, count) + count <= 0)
+          contribution.removeInt(key);
+        if (delta != null)
+          delta.addTo(key, count);
+      }
+    }
+  }
+
+  /**
+   * Takes in the keys a chained tunnel feeding this one gained or lost
+   */
+  private void onUpstreamChanged(PatternP2PTunnelLogic upstream,
+    List<AEKey> added, List<AEKey> removed) {
+    // loops can't be followed, anything lost in one gets picked up next time
+    // the inputs are refreshed
+    if (this.isRecursive || upstream == this)
+      return;
+    Object2IntMap<AEKey> contribution = this.contributions.get(upstream);
+    if (contribution == null) {
+      refreshInputs();
+      return;
+    }
+    try {
+      this.isRecursive = true;
+      Object2IntOpenHashMap<AEKey> delta = new Object2IntOpenHashMap<>();
+      for (AEKey key : added) {
+        if (contribution.put(key, 1) == 0)
+          delta.addTo(key, 1);
+      }
+      for (AEKey key : removed) {
+        if (contribution.removeInt(key) != 0)
+          delta.addTo(key, -1);
       }
+      applyDelta(delta);
     } finally {
       this.isRecursive = false;
     }
   }
 
+  /**
+   * @return what's feeding this tunnel through the input, either a crafting
+   *         provider or another pattern tunnel, null if nothing
+   */
+  private static Object getSource(Target input) {
+    ICraftingProvider provider = input.getTargetCraftingProvider();
+    if (provider != null)
+      return provider;
+    ICraftingMachine maybeMachine = input.getTargetCraftingMachine();
+    if (maybeMachine instanceof PatternP2PTunnelLogic inputLogic)
+      return inputLogic;
+    return null;
+  }
+
+  private Object2IntOpenHashMap<AEKey> computeContribution(Object source) {
+    Object2IntOpenHashMap<AEKey> contribution = new Object2IntOpenHashMap<>();
+    if (source instanceof ICraftingProvider provider) {
+      Object2IntOpenHashMap<IPatternDetails> patterns = countPatterns(provider);
+      for (var entry : Object2IntMaps.fastIterable(patterns)) {
+        addPatternInputs(entry.getKey(), entry.getIntValue(), contribution,
+          null);
+      }
+      this.providerPatterns.put(provider, patterns);
+    } else if (source instanceof PatternP2PTunnelLogic inputLogic) {
+      for (AEKey key : inputLogic.patternInputs) {
+        contribution.put(key, 1);
+      }
+    }
+    return contribution;
+  }
+
+  /**
+   * Swaps out what a source contributes, collecting the change per key
+   *
+   * @param contribution new contribution, null to drop the source
+   */
+  private void setContribution(Object source,
+    Object2IntOpenHashMap<AEKey> contribution,
+    Object2IntOpenHashMap<AEKey> delta) {
+    Object2IntMap<AEKey> old = contribution == null
+      ? this.contributions.remove(source)
+      : this.contributions.put(source, contribution);
+    if (contribution == null)
+      this.providerPatterns.remove(source);
+    if (contribution != null) {
+      for (var entry : Object2IntMaps.fastIterable(contribution)) {
+        delta.addTo(entry.getKey(), entry.getIntValue());
+      }
+    }
+    if (old != null) {
+      for (var entry : Object2IntMaps.fastIterable(old)) {
+        delta.addTo(entry.getKey(), -entry.getIntValue());
+      }
+    }
+  }
+
+  /**
+   * Applies per key count changes, passing keys that appeared or disappeared on
+   * to chained tunnels
+   */
+  private void applyDelta(Object2IntMap<AEKey> delta) {
+    List<AEKey> added = new ArrayList<>();
+    List<AEKey> removed = new ArrayList<>();
+    for (var entry : Object2IntMaps.fastIterable(delta)) {
+      int change = entry.getIntValue();
+      if (change == 0)
+        continue;
+      AEKey key = entry.getKey();
+      int before = this.inputCounts.getInt(key);
+      int after = before + change;
+      if (after <= 0) {
+        this.inputCounts.removeInt(key);
+        if (before > 0)
+          removed.add(key);
+      } else {
+        this.inputCounts.put(key, after);
+        if (before == 0)
+          added.add(key);
+      }
+    }
+    if (added.isEmpty() && removed.isEmpty())
+      return;
+
+    for (Target output : tunnel.getPatternTunnelOutputs()) {
+      ICraftingMachine maybeMachine = output.getTargetCraftingMachine();
+      if (maybeMachine instanceof PatternP2PTunnelLogic outputLogic) {
+        outputLogic.onUpstreamChanged(this, added, removed);
+      }
+    }
+  }
+
   public static boolean targetAcceptsAll(PatternProviderTarget target,
     KeyCounter[] inputHolder) {
     for (var inputList : inputHolder) {
@@ -258,15 +594,28 @@ public class PatternP2PTunnelLogic implements ICraftingMachine {
       return level().getBlockEntity(pos());
     }
 
+    public default ICraftingMachine getTargetCraftingMachine() {
+      return ICraftingMachine
+        .of(level(), pos(), side(), getTargetBlockEntity());
+    }
+
     public default ICraftingProvider getTargetCraftingProvider() {
-      BlockEntity maybeEntity = getTargetBlockEntity();
+      return findCraftingProvider(getTargetBlockEntity(), side());
+    }
+
+    /**
+     * @return the crafting provider of the block entity, or of its part on the
+     *         given side, null if there isn't one
+     */
+    public static ICraftingProvider findCraftingProvider(
+      BlockEntity maybeEntity, Direction side) {
       if (maybeEntity != null) {
         if (maybeEntity instanceof ICraftingProvider provider) {
           return provider;
         } else if (maybeEntity instanceof PatternProviderLogicHost logicHost) {
           return logicHost.getLogic();
         } else if (maybeEntity instanceof IPartHost host) {
-          IPart maybePart = host.getPart(side());
+          IPart maybePart = host.getPart(side);
           if (maybePart != null) {
             if (maybePart instanceof ICraftingProvider provider) {
               return provider;
@@ -23,6 +23,7 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.LazyOptional;
@@ -43,6 +44,7 @@ public class PatternP2PTunnelPart extends P2PTunnelPart<PatternP2PTunnelPart>
   protected final LazyOptional<ICraftingMachine> logic;
 
   private PatternProviderTargetCache targetCache;
+  private final TargetLookup lookup = new TargetLookup(this);
   private final PatternP2PPartLogic partLogic = new PatternP2PPartLogic(this);
 
   public PatternP2PTunnelPart(IPartItem<?> partItem) {
@@ -73,12 +75,62 @@ public class PatternP2PTunnelPart extends P2PTunnelPart<PatternP2PTunnelPart>
     this.targetCache = PatternP2PPartLogicHost.super.getCache();
   }
 
+  @Override
+  public void onTunnelNetworkChange() {
+    super.onTunnelNetworkChange();
+    if (this.logic != null)
+      this.logic
+        .ifPresent(machine -> ((PatternP2PTunnelLogic) machine).refreshOutputs());
+  }
+
   public boolean isValid() { return this.partLogic.isValid(); }
 
   public void addToSendList(AEKey what, long l) {
     this.partLogic.addToSendList(what, l);
   }
 
+  @Override
+  public void onSendListDrained() {
+    notifyOutputChanged();
+  }
+
+  @Override
+  public void onNeighborChanged(BlockGetter level, BlockPos pos,
+    BlockPos neighbor) {
+    if (this.pos().equals(neighbor)) {
+      this.lookup.invalidate();
+      notifyOutputChanged();
+    }
+  }
+
+  @Override
+  public BlockEntity getTargetBlockEntity() {
+    return this.lookup.getBlockEntity();
+  }
+
+  @Override
+  public ICraftingMachine getTargetCraftingMachine() {
+    return this.lookup.getCraftingMachine();
+  }
+
+  @Override
+  public ICraftingProvider getTargetCraftingProvider() {
+    return this.lookup.getCraftingProvider();
+  }
+
+  /**
+   * Lets the input's tunnel logic push into this output again
+   */
+  private void notifyOutputChanged() {
+    if (!this.isOutput())
+      return;
+    PatternP2PTunnelPart input = this.getInput();
+    if (input != null && input.logic != null)
+      input.logic
+        .ifPresent(
+          machine -> ((PatternP2PTunnelLogic) machine).onOutputChanged(this));
+  }
+
   public void addAdditionalDrops(List<ItemStack> drops, boolean wrenched) {
     this.partLogic.addAdditionalDrops(drops, wrenched);
   }
@@ -0,0 +1,70 @@
+package stone.mae2.parts.p2p;
+
+import appeng.api.implementations.blockentities.ICraftingMachine;
+import appeng.api.networking.crafting.ICraftingProvider;
+import net.minecraft.world.level.block.entity.BlockEntity;
+
+import stone.mae2.parts.p2p.PatternP2PTunnelLogic.Target;
+
+/**
+ * Remembers what a pattern P2P target is facing, so pushing patterns doesn't
+ * look up the block entity and its crafting machine every time
+ *
+ * The owner has to {@link #invalidate()} it on block updates in front of the
+ * target. A remembered block entity that got removed, which also happens when
+ * its chunk unloads, is looked up again.
+ */
+public class TargetLookup {
+  private final Target target;
+
+  private boolean hasLookedUp;
+  private BlockEntity blockEntity;
+  private boolean hasMachine;
+  private ICraftingMachine machine;
+  private boolean hasProvider;
+  private ICraftingProvider provider;
+
+  public TargetLookup(Target target) {
+    this.target = target;
+  }
+
+  public void invalidate() {
+    this.hasLookedUp = false;
+    this.blockEntity = null;
+    this.hasMachine = false;
+    this.machine = null;
+    this.hasProvider = false;
+    this.provider = null;
+  }
+
+  public BlockEntity getBlockEntity() {
+    if (!this.hasLookedUp
+      || (this.blockEntity != null && this.blockEntity.isRemoved())) {
+      invalidate();
+      this.blockEntity = this.target
+        .level()
+        .getBlockEntity(this.target.pos());
+      this.hasLookedUp = true;
+    }
+    return this.blockEntity;
+  }
+
+  public ICraftingMachine getCraftingMachine() {
+    BlockEntity be = getBlockEntity();
+    if (!this.hasMachine) {
+      this.machine = ICraftingMachine
+        .of(this.target.level(), this.target.pos(), this.target.side(), be);
+      this.hasMachine = true;
+    }
+    return this.machine;
+  }
+
+  public ICraftingProvider getCraftingProvider() {
+    BlockEntity be = getBlockEntity();
+    if (!this.hasProvider) {
+      this.provider = Target.findCraftingProvider(be, this.target.side());
+      this.hasProvider = true;
+    }
+    return this.provider;
+  }
+}
@@ -26,6 +26,8 @@ import net.minecraft.world.level.BlockGetter;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.LazyOptional;
 
+import stone.mae2.me.service.TunnelStats;
+
 /**
  * Base class for simple capability-based p2p tunnels. Don't forget to set the 3
  * handlers in the constructor of the child class!
@@ -42,9 +44,32 @@ public abstract class CapabilityMultiP2PTunnel<T extends CapabilityMultiP2PTunne
     super(freq, grid);
   }
 
+  @Override
+  public boolean removeTunnel(P part) {
+    L logic = part.getLogic();
+    if (logic != null) {
+      logic.invalidateExposedCapability();
+    }
+    return super.removeTunnel(part);
+  }
+
   public class Logic extends MultiP2PTunnel<T, L, P>.Logic {
     private final CapabilityGuard capabilityGuard = new CapabilityGuard();
 
+    /**
+     * Capability of the block this part is facing, null if it needs to be
+     * resolved again. Dropped when the neighbor invalidates it or on a block
+     * update in front of the part.
+     */
+    private LazyOptional<C> adjacentCapability;
+
+    /**
+     * Capability handed out to neighbors of this part, kept so every query
+     * doesn't allocate a new {@link LazyOptional}
+     */
+    private LazyOptional<C> exposedCapability;
+    private boolean exposedIsOutput;
+
     public Logic(P part) {
       super(part);
     }
@@ -52,16 +77,61 @@ public abstract class CapabilityMultiP2PTunnel<T extends CapabilityMultiP2PTunne
     public final <A> LazyOptional<A> getCapability(
       Capability<A> capabilityClass) {
       if (capabilityClass == CapabilityMultiP2PTunnel.this.getCapability()) {
-        if (this.part.isOutput()) {
-          return LazyOptional.of(() -> outputHandler).cast();
-        } else {
-          return LazyOptional.of(() -> inputHandler).cast();
+        boolean isOutput = this.part.isOutput();
+        if (this.exposedCapability == null
+          || this.exposedIsOutput != isOutput) {
+          invalidateExposedCapability();
+          C handler = isOutput ? outputHandler : inputHandler;
+          this.exposedCapability = LazyOptional.of(() -> handler);
+          this.exposedIsOutput = isOutput;
         }
+        return this.exposedCapability.cast();
       }
       return LazyOptional.empty();
 
     }
 
+    void invalidateExposedCapability() {
+      if (this.exposedCapability != null) {
+        // clear first, invalidating notifies neighbors which may query again
+        var old = this.exposedCapability;
+        this.exposedCapability = null;
+        old.invalidate();
+      }
+    }
+
+    private C resolveAdjacentCapability() {
+      if (this.adjacentCapability == null) {
+        var self = this.part.getBlockEntity();
+        var te = self.getLevel().getBlockEntity(getFacingPos());
+        if (te == null) {
+          this.adjacentCapability = LazyOptional.empty();
+        } else {
+          var capability = te
+            .getCapability(CapabilityMultiP2PTunnel.this.getCapability(),
+              this.part.getSide().getOpposite());
+          this.adjacentCapability = capability;
+          // empty optionals call listeners right away, and there's nothing to
+          // invalidate anyways
+          if (capability.isPresent()) {
+            capability.addListener(invalidated -> {
+              if (this.adjacentCapability == invalidated) {
+                this.adjacentCapability = null;
+                onAdjacentCapabilityChanged();
+              }
+            });
+          }
+        }
+      }
+      return this.adjacentCapability.orElse(emptyHandler);
+    }
+
+    /**
+     * Called when the capability in front of this part may have changed,
+     * either from a block update or the neighbor invalidating it
+     */
+    protected void onAdjacentCapabilityChanged() {}
+
     /**
      * Return the capability connected to this side of this P2P connection. If
      * this method is called again on this tunnel while the returned object has
@@ -69,9 +139,13 @@ public abstract class CapabilityMultiP2PTunnel<T extends CapabilityMultiP2PTunne
      * return a dummy capability.
      */
     private int accessDepth = 0;
+    // when the outermost access started, only set while profiling
+    private long accessStart = 0;
 
     protected final CapabilityGuard getAdjacentCapability() {
-      accessDepth++;
+      if (accessDepth++ == 0 && TunnelStats.isEnabled()) {
+        accessStart = System.nanoTime();
+      }
       return capabilityGuard;
     }
 
@@ -86,15 +160,7 @@ public abstract class CapabilityMultiP2PTunnel<T extends CapabilityMultiP2PTunne
             "get was called after closing the wrapper");
         } else if (accessDepth == 1) {
           if (Logic.this.part.isActive()) {
-            var self = Logic.this.part.getBlockEntity();
-            var te = self.getLevel().getBlockEntity(getFacingPos());
-
-            if (te != null) {
-              return te
-                .getCapability(CapabilityMultiP2PTunnel.this.getCapability(),
-                  Logic.this.part.getSide().getOpposite())
-                .orElse(emptyHandler);
-            }
+            return resolveAdjacentCapability();
           }
 
           return emptyHandler;
@@ -107,19 +173,30 @@ public abstract class CapabilityMultiP2PTunnel<T extends CapabilityMultiP2PTunne
         }
       }
 
+      /**
+       * Whether this access is nested inside another one on the same tunnel,
+       * in which case {@link #get()} only hands out the empty handler
+       */
+      public boolean isNested() { return accessDepth > 1; }
+
       @Override
       public void close() {
         if (--accessDepth < 0) {
           throw new IllegalStateException(
             "Close has been called multiple times");
         }
+        if (accessDepth == 0 && accessStart != 0) {
+          CapabilityMultiP2PTunnel.this.stats
+            .recordHandlerCall(System.nanoTime() - accessStart);
+          accessStart = 0;
+        }
       }
     }
 
     /**
      * The position right in front of this P2P tunnel.
      */
-    private BlockPos getFacingPos() {
+    protected final BlockPos getFacingPos() {
       return this.part
         .getHost()
         .getLocation()
@@ -176,6 +253,9 @@ public abstract class CapabilityMultiP2PTunnel<T extends CapabilityMultiP2PTunne
         return;
       }
 
+      this.adjacentCapability = null;
+      onAdjacentCapabilityChanged();
+
       // Prevent recursive block updates.
       if (!inBlockUpdate) {
         inBlockUpdate = true;
@@ -0,0 +1,773 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.parts.p2p.multi;
+
+import appeng.api.networking.IGrid;
+import appeng.api.networking.ticking.TickRateModulation;
+import appeng.api.parts.IPartItem;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.AEKeyType;
+import appeng.api.stacks.GenericStack;
+import appeng.helpers.IPriorityHost;
+import appeng.menu.ISubMenu;
+import appeng.menu.MenuOpener;
+import appeng.menu.implementations.PriorityMenu;
+import appeng.menu.locator.MenuLocators;
+import appeng.util.InteractionUtil;
+import appeng.util.SettingsFrom;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+import stone.mae2.api.Tickable;
+import stone.mae2.me.service.MultiP2PService;
+import stone.mae2.util.TransHelper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Base class for tunnels that split a resource between their outputs, like
+ * items or fluids
+ *
+ * How it gets split is up to the tunnel's {@link DistributionMode}, which is
+ * cycled by shift using an input with an empty hand. Outputs have a priority
+ * for {@link DistributionMode#FILL_FIRST}, set by using them with an empty
+ * hand. Tunnels that can buffer toggle it by using an input with a wrench,
+ * which puts whatever goes into the inputs into a buffer that gets
+ * distributed on the tunnel's tick instead. Both show up in the input's
+ * tooltip.
+ *
+ * Outputs that reject everything of a resource they're offered are skipped for
+ * that resource for a few ticks, backing off exponentially while they keep
+ * rejecting it, until something changes in front of them.
+ *
+ * @param <R> the resource being moved, passed back to
+ *            {@link #insert(Object, Object, int, boolean)} as is
+ */
+public abstract class DistributingMultiP2PTunnel<T extends DistributingMultiP2PTunnel<T, L, P, C, R>, L extends DistributingMultiP2PTunnel<T, L, P, C, R>.Logic, P extends DistributingMultiP2PTunnel.Part<T, L, P, C, R>, C, R>
+  extends CapabilityMultiP2PTunnel<T, L, P, C> implements Tickable {
+  public static final String BUFFER_TAG = "buffer";
+
+  /**
+   * How much is offered to an output to find out how much room it has, big
+   * enough to fill any sane inventory but far enough from max int that
+   * handlers adding it to what they hold don't overflow
+   */
+  private static final int ROOM_PROBE = 1 << 24;
+
+  /**
+   * Ticks an output that rejected a resource is skipped for, doubling each
+   * time it rejects it again up to the max
+   */
+  private static final int MIN_BACKOFF = 1;
+  private static final int MAX_BACKOFF = 32;
+
+  private DistributionMode mode = DistributionMode.ROUND_ROBIN;
+  private boolean isBuffered;
+
+  /**
+   * Outputs in the order they're offered to, sorted by priority when filling
+   * first. Rebuilt lazily after the outputs or mode change.
+   */
+  private final List<L> order = new ArrayList<>();
+  private boolean isOrderDirty = true;
+  // where the next round robin split starts
+  private int cursor;
+  // if the room cached by each output might be out of date
+  private boolean isRoomStale = true;
+  // the resource the cached room is for
+  @Nullable
+  private AEKey roomKey;
+  // game time of the current distribution, for backing off from full outputs
+  private long now;
+  // key of what's being distributed, only looked up once it's needed
+  @Nullable
+  private AEKey key;
+
+  /**
+   * What went into the inputs while buffered, waiting for the next tick to be
+   * distributed
+   *
+   * Lots of small inserts from pipes, or many pumps, then cost one
+   * distribution per tick instead of one each, so the work grows with the
+   * outputs rather than inputs times outputs.
+   */
+  // Persisted
+  private final Object2LongOpenHashMap<AEKey> buffer = new Object2LongOpenHashMap<>();
+  private long bufferedAmount;
+
+  /**
+   * Keys a simulated distribution took since the last tick
+   *
+   * Anything else gets checked before it's buffered, so what no output takes
+   * is refused up front instead of sitting in the buffer for good.
+   */
+  private final Set<AEKey> routable = new ObjectOpenHashSet<>();
+
+  // set while the buffer is being distributed, so anything looping back
+  // around into the inputs can't change it mid iteration
+  private boolean isDistributing;
+
+  /**
+   * Flag for if the last tick put this tunnel to sleep
+   *
+   * Set when the buffer is empty, buffered inserts wake it back up.
+   */
+  private boolean isSleeping = true;
+
+  public DistributingMultiP2PTunnel(short freq, IGrid grid) {
+    super(freq, grid);
+  }
+
+  /**
+   * Offer some of the resource to a handler
+   *
+   * @param handler  the output's adjacent handler, never the empty handler
+   * @param resource what was given to the input, mustn't be modified or stored
+   * @param amount   how much of the resource to offer
+   * @return how much the handler took
+   */
+  protected abstract int insert(C handler, R resource, int amount,
+    boolean simulate);
+
+  /**
+   * @return the key for the resource, ignoring its amount
+   */
+  protected abstract AEKey getKey(R resource);
+
+  /**
+   * @return a resource for a key from {@link #getKey(Object)}, only ever
+   *         passed to {@link #distribute(Object, int, boolean)} so its amount
+   *         doesn't matter
+   */
+  protected abstract R toResource(AEKey key);
+
+  /**
+   * @return how much the buffer holds per output, 0 if this tunnel can't
+   *         buffer
+   */
+  protected long getBufferPerOutput() {
+    return 0;
+  }
+
+  public DistributionMode getDistributionMode() { return this.mode; }
+
+  /**
+   * Sets the mode of this tunnel and every input, so it survives whichever
+   * input gets loaded last
+   */
+  public void setDistributionMode(DistributionMode mode) {
+    this.mode = mode;
+    this.isOrderDirty = true;
+    for (L input : this.inputs) {
+      input.part.setDistributionMode(mode);
+    }
+  }
+
+  /**
+   * @return if this tunnel has a buffered mode, where inputs go into a buffer
+   *         that gets distributed on the tunnel's tick
+   */
+  protected final boolean canBuffer() {
+    return getBufferPerOutput() > 0;
+  }
+
+  public boolean isBuffered() { return this.isBuffered; }
+
+  /**
+   * Sets if this tunnel and every input buffers, like
+   * {@link #setDistributionMode(DistributionMode)}
+   */
+  public void setBuffered(boolean isBuffered) {
+    this.isBuffered = isBuffered && canBuffer();
+    for (L input : this.inputs) {
+      input.part.setBuffered(this.isBuffered);
+    }
+  }
+
+  @Override
+  public L addTunnel(P part) {
+    L logic = super.addTunnel(part);
+    if (part.isOutput()) {
+      this.isOrderDirty = true;
+    } else {
+      this.mode = part.getDistributionMode();
+      this.isBuffered = part.isBuffered() && canBuffer();
+    }
+    return logic;
+  }
+
+  @Override
+  public CompoundTag saveNodeData(P part) {
+    CompoundTag data = super.saveNodeData(part);
+    if (this.buffer.isEmpty())
+      return data;
+    if (data == null)
+      data = new CompoundTag();
+    // grid seems to remove part before calling this, hence +1
+    int parts = this.inputs.size() + 1;
+    ListTag stacks = new ListTag();
+    var iterator = Object2LongMaps.fastIterator(this.buffer);
+    while (iterator.hasNext()) {
+      var entry = iterator.next();
+      long amount = entry.getLongValue();
+      long split = amount / parts;
+      if (split <= 0)
+        continue;
+      stacks.add(GenericStack.writeTag(new GenericStack(entry.getKey(), split)));
+      this.bufferedAmount -= split;
+      if (split == amount)
+        iterator.remove();
+      else
+        entry.setValue(amount - split);
+    }
+    data.put(BUFFER_TAG, stacks);
+    return data;
+  }
+
+  @Override
+  public L addTunnel(P part, Tag tag) {
+    if (tag instanceof CompoundTag data) {
+      ListTag stacks = data.getList(BUFFER_TAG, Tag.TAG_COMPOUND);
+      for (int i = 0; i < stacks.size(); i++) {
+        GenericStack stack = GenericStack.readTag(stacks.getCompound(i));
+        if (stack != null) {
+          this.buffer.addTo(stack.what(), stack.amount());
+          this.bufferedAmount += stack.amount();
+        }
+      }
+    }
+    return addTunnel(part);
+  }
+
+  @Override
+  public boolean removeTunnel(P part) {
+    this.isOrderDirty = true;
+    return super.removeTunnel(part);
+  }
+
+  void onPriorityChanged() {
+    this.isOrderDirty = true;
+  }
+
+  private List<L> getOrder() {
+    if (this.isOrderDirty) {
+      this.order.clear();
+      this.order.addAll(this.outputs);
+      if (this.mode == DistributionMode.FILL_FIRST) {
+        // stable, so ties keep whatever order the outputs were in
+        this.order
+          .sort(Comparator
+            .<L>comparingInt(output -> output.part.getPriority())
+            .reversed());
+      }
+      this.cursor = 0;
+      this.isRoomStale = true;
+      this.isOrderDirty = false;
+    }
+    return this.order;
+  }
+
+  /**
+   * Split the resource between the outputs according to the tunnel's mode
+   *
+   * @return how much the outputs took in total
+   */
+  protected final int distribute(R resource, int amount, boolean simulate) {
+    List<L> outputs = getOrder();
+    if (outputs.isEmpty() || amount <= 0) {
+      return 0;
+    }
+    Level level = outputs.get(0).part.getLevel();
+    this.now = level == null ? 0 : level.getGameTime();
+    this.key = null;
+
+    switch (this.mode) {
+    case FILL_FIRST:
+      return fillFirst(outputs, resource, amount, simulate);
+    case WEIGHTED:
+      return weighted(outputs, resource, amount, simulate);
+    case ROUND_ROBIN:
+    default:
+      return roundRobin(outputs, resource, amount, simulate);
+    }
+  }
+
+  /**
+   * Put the resource into the buffer for the next tick to distribute
+   *
+   * @return how much fit
+   */
+  protected final int buffer(R resource, int amount, boolean simulate) {
+    if (this.isDistributing || amount <= 0 || this.outputs.isEmpty()) {
+      return 0;
+    }
+    AEKey key = getKey(resource);
+    long perOutput = getBufferPerOutput();
+    long capacity = perOutput * this.outputs.size();
+    // nothing gets more than half, so something that's backed up can't keep
+    // out everything else
+    long keyCapacity = Math.max(perOutput, capacity / 2);
+    int accepted = (int) Math
+      .min(amount, Math
+        .min(capacity - this.bufferedAmount,
+          keyCapacity - this.buffer.getLong(key)));
+    if (accepted <= 0) {
+      return 0;
+    }
+    if (!this.routable.contains(key)) {
+      if (distribute(resource, 1, true) == 0) {
+        return 0;
+      }
+      this.routable.add(key);
+    }
+    if (!simulate) {
+      this.buffer.addTo(key, accepted);
+      this.bufferedAmount += accepted;
+      wake();
+    }
+    return accepted;
+  }
+
+  private void wake() {
+    if (this.isSleeping) {
+      this.isSleeping = false;
+      MultiP2PService.get(this.grid).alertTickable(this);
+    }
+  }
+
+  @Override
+  public TickRateModulation tick() {
+    // the service wakes tunnels on its own too
+    this.isSleeping = false;
+    this.routable.clear();
+    long distributed = 0;
+    AEKeyType type = null;
+    this.isDistributing = true;
+    try {
+      var iterator = Object2LongMaps.fastIterator(this.buffer);
+      while (iterator.hasNext()) {
+        var entry = iterator.next();
+        AEKey key = entry.getKey();
+        long amount = entry.getLongValue();
+        int sent = distribute(toResource(key),
+          (int) Math.min(amount, Integer.MAX_VALUE), false);
+        if (sent == amount) {
+          iterator.remove();
+        } else if (sent > 0) {
+          entry.setValue(amount - sent);
+        }
+        distributed += sent;
+        type = key.getType();
+      }
+    } finally {
+      this.isDistributing = false;
+    }
+    this.bufferedAmount -= distributed;
+    if (distributed > 0) {
+      // buffered inserts are taxed once they're distributed
+      this.deductTransportCost(distributed, type);
+      return TickRateModulation.FASTER;
+    }
+    if (this.buffer.isEmpty()) {
+      this.isSleeping = true;
+      return TickRateModulation.SLEEP;
+    }
+    return TickRateModulation.SLOWER;
+  }
+
+  private int roundRobin(List<L> outputs, R resource, int amount,
+    boolean simulate) {
+    final int size = outputs.size();
+    final int start = this.cursor % size;
+    final int share = amount / size;
+    // the first outputs from the cursor get one more each
+    final int extra = amount % size;
+
+    int remaining = amount;
+    int carry = 0;
+    for (int i = 0; i < size && remaining > 0; i++) {
+      int toSend = share + (i < extra ? 1 : 0) + carry;
+      if (toSend == 0) {
+        // nothing was carried over and every share after this is empty too
+        break;
+      }
+      int sent = send(outputs.get((start + i) % size), resource, toSend,
+        simulate);
+      carry = toSend - sent;
+      remaining -= sent;
+    }
+
+    if (!simulate) {
+      this.cursor = (start + Math.max(extra, 1)) % size;
+    }
+    return amount - remaining;
+  }
+
+  private int fillFirst(List<L> outputs, R resource, int amount,
+    boolean simulate) {
+    int remaining = amount;
+    for (int i = 0; i < outputs.size() && remaining > 0; i++) {
+      remaining -= send(outputs.get(i), resource, remaining, simulate);
+    }
+    return amount - remaining;
+  }
+
+  private int weighted(List<L> outputs, R resource, int amount,
+    boolean simulate) {
+    AEKey key = currentKey(resource);
+    if (!key.equals(this.roomKey)) {
+      // room for something else says nothing about room for this
+      this.roomKey = key;
+      for (int i = 0; i < outputs.size(); i++) {
+        outputs.get(i).room = 0;
+      }
+      this.isRoomStale = true;
+    }
+    long room = 0;
+    for (int i = 0; i < outputs.size(); i++) {
+      room += outputs.get(i).room;
+    }
+    // only look again if the last look is out of date and what's cached
+    // can't fit everything, otherwise full outputs would get probed on every
+    // insert
+    if (room < amount && this.isRoomStale) {
+      room = 0;
+      for (int i = 0; i < outputs.size(); i++) {
+        L output = outputs.get(i);
+        output.room = send(output, resource, ROOM_PROBE, true);
+        room += output.room;
+      }
+      this.isRoomStale = false;
+    }
+    if (room <= 0) {
+      // everything looked full, but something might've been taken out since
+      int sent = roundRobin(outputs, resource, amount, simulate);
+      if (sent > 0) {
+        this.isRoomStale = true;
+      }
+      return sent;
+    }
+
+    int remaining = amount;
+    int carry = 0;
+    for (int i = 0; i < outputs.size() && remaining > 0; i++) {
+      L output = outputs.get(i);
+      // the last output gets whatever rounding down left over
+      int toSend = i == outputs.size() - 1 ? remaining
+        : (int) (amount * output.room / room) + carry;
+      toSend = Math.min(toSend, remaining);
+      if (toSend == 0) {
+        continue;
+      }
+      int sent = send(output, resource, toSend, simulate);
+      carry = toSend - sent;
+      remaining -= sent;
+      if (!simulate) {
+        // anything rejected means it's full now
+        output.room = sent < toSend ? 0 : Math.max(0, output.room - sent);
+        this.isRoomStale = true;
+      }
+    }
+    return amount - remaining;
+  }
+
+  private AEKey currentKey(R resource) {
+    if (this.key == null) {
+      this.key = getKey(resource);
+    }
+    return this.key;
+  }
+
+  private int send(L output, R resource, int amount, boolean simulate) {
+    if (output.skipUntil > this.now
+      && output.skipKey.equals(currentKey(resource))) {
+      // rejected this the last time, don't bother asking yet
+      return 0;
+    }
+    try (var guard = output.getAdjacentCapability()) {
+      C handler = guard.get();
+      if (handler == this.emptyHandler) {
+        // nothing to offer to, skip copying the resource
+        return 0;
+      }
+      int sent = insert(handler, resource, amount, simulate);
+      // a simulation rejecting something says nothing about what the output
+      // takes for real, pipes simulate whatever they're holding
+      if (!simulate) {
+        if (sent == 0) {
+          output.backOff(currentKey(resource), this.now);
+        } else if (output.backoff != 0
+          && output.skipKey.equals(currentKey(resource))) {
+          output.backoff = 0;
+        }
+      }
+      return sent;
+    }
+  }
+
+  public class Logic extends CapabilityMultiP2PTunnel<T, L, P, C>.Logic {
+    /**
+     * Room in the adjacent handler for the tunnel's {@link #roomKey}, as of
+     * the last time the tunnel looked or sent something
+     */
+    long room;
+
+    /**
+     * Game time this output is offered {@link #skipKey} again after rejecting
+     * all of it. Most outputs of a big machine array are full at any given
+     * moment, so this saves asking each of them on every insert.
+     *
+     * Only the rejected resource is skipped, a filtered slot or a tank holding
+     * some other fluid might still take something else.
+     */
+    long skipUntil;
+    @Nullable
+    AEKey skipKey;
+    // how long it was skipped for last, 0 if it took the key since
+    int backoff;
+
+    public Logic(P part) {
+      super(part);
+    }
+
+    void backOff(AEKey key, long now) {
+      if (!key.equals(this.skipKey)) {
+        // rejecting something new starts over
+        this.skipKey = key;
+        this.backoff = 0;
+      }
+      this.backoff = this.backoff == 0 ? MIN_BACKOFF
+        : Math.min(this.backoff * 2, MAX_BACKOFF);
+      this.skipUntil = now + this.backoff;
+    }
+
+    @Override
+    protected void onAdjacentCapabilityChanged() {
+      this.room = 0;
+      // something changed in front, it might have room now
+      this.skipUntil = 0;
+      this.skipKey = null;
+      this.backoff = 0;
+      DistributingMultiP2PTunnel.this.isRoomStale = true;
+    }
+  }
+
+  public abstract static class Part<T extends DistributingMultiP2PTunnel<T, L, P, C, R>, L extends DistributingMultiP2PTunnel<T, L, P, C, R>.Logic, P extends Part<T, L, P, C, R>, C, R>
+    extends CapabilityMultiP2PTunnel.Part<T, L, P, C> implements IPriorityHost {
+    private static final String PRIORITY_TAG = "priority";
+    private static final String DISTRIBUTION_TAG = "distribution";
+    private static final String BUFFERED_TAG = "buffered";
+
+    private int priority;
+    // only used by inputs, the tunnel keeps the one in effect
+    private DistributionMode distributionMode = DistributionMode.ROUND_ROBIN;
+    private boolean isBuffered;
+
+    public Part(IPartItem<?> partItem) {
+      super(partItem);
+    }
+
+    @Override
+    public int getPriority() { return this.priority; }
+
+    @Override
+    public void setPriority(int newValue) {
+      if (this.priority != newValue) {
+        this.priority = newValue;
+        this.getHost().markForSave();
+        T tunnel = this.getTunnel();
+        if (tunnel != null)
+          tunnel.onPriorityChanged();
+      }
+    }
+
+    public DistributionMode getDistributionMode() {
+      return this.distributionMode;
+    }
+
+    void setDistributionMode(DistributionMode mode) {
+      if (this.distributionMode != mode) {
+        this.distributionMode = mode;
+        this.getHost().markForSave();
+      }
+    }
+
+    public boolean isBuffered() { return this.isBuffered; }
+
+    void setBuffered(boolean isBuffered) {
+      if (this.isBuffered != isBuffered) {
+        this.isBuffered = isBuffered;
+        this.getHost().markForSave();
+      }
+    }
+
+    @Override
+    public ItemStack getMainMenuIcon() { return new ItemStack(getPartItem()); }
+
+    @Override
+    public void returnToMainMenu(Player player, ISubMenu subMenu) {
+      // there's no main menu to go back to
+      player.closeContainer();
+    }
+
+    @Override
+    public void readFromNBT(CompoundTag data) {
+      super.readFromNBT(data);
+      this.priority = data.getInt(PRIORITY_TAG);
+      this.distributionMode = DistributionMode
+        .byName(data.getString(DISTRIBUTION_TAG));
+      this.isBuffered = data.getBoolean(BUFFERED_TAG);
+    }
+
+    @Override
+    public void writeToNBT(CompoundTag data) {
+      super.writeToNBT(data);
+      data.putInt(PRIORITY_TAG, this.priority);
+      data.putString(DISTRIBUTION_TAG, this.distributionMode.name());
+      data.putBoolean(BUFFERED_TAG, this.isBuffered);
+    }
+
+    @Override
+    public void importSettings(SettingsFrom mode, CompoundTag input,
+      @Nullable Player player, boolean settingOutput) {
+      super.importSettings(mode, input, player, settingOutput);
+      if (!this.isOutput() && input.contains(DISTRIBUTION_TAG, Tag.TAG_STRING)) {
+        DistributionMode distribution = DistributionMode
+          .byName(input.getString(DISTRIBUTION_TAG));
+        T tunnel = this.getTunnel();
+        if (tunnel != null)
+          tunnel.setDistributionMode(distribution);
+        else
+          this.setDistributionMode(distribution);
+      }
+      if (!this.isOutput() && input.contains(BUFFERED_TAG, Tag.TAG_BYTE)) {
+        boolean isBuffered = input.getBoolean(BUFFERED_TAG);
+        T tunnel = this.getTunnel();
+        if (tunnel != null)
+          tunnel.setBuffered(isBuffered);
+        else
+          this.setBuffered(isBuffered);
+      }
+    }
+
+    @Override
+    public void exportSettings(SettingsFrom mode, CompoundTag output) {
+      super.exportSettings(mode, output);
+      if (mode == SettingsFrom.MEMORY_CARD) {
+        T tunnel = this.getTunnel();
+        output
+          .putString(DISTRIBUTION_TAG,
+            (tunnel != null ? tunnel.getDistributionMode()
+              : this.distributionMode).name());
+        output
+          .putBoolean(BUFFERED_TAG,
+            tunnel != null ? tunnel.isBuffered() : this.isBuffered);
+      }
+    }
+
+    private static boolean isEmptyHanded(Player player,
+      InteractionHand hand) {
+      return hand == InteractionHand.MAIN_HAND
+        && player.getMainHandItem().isEmpty()
+        && player.getOffhandItem().isEmpty();
+    }
+
+    @Override
+    public boolean onPartActivate(Player player, InteractionHand hand,
+      Vec3 pos) {
+      if (super.onPartActivate(player, hand, pos)) {
+        return true;
+      }
+      if (this.isOutput()) {
+        // anything held is for attuning or memory cards
+        if (!isEmptyHanded(player, hand)) {
+          return false;
+        }
+        if (!isClientSide()) {
+          MenuOpener
+            .open(PriorityMenu.TYPE, player, MenuLocators.forPart(this));
+        }
+        return true;
+      }
+      // buffering changes how the whole tunnel behaves, so it takes a wrench
+      // instead of a click players make all the time
+      if (hand != InteractionHand.MAIN_HAND
+        || !InteractionUtil.canWrenchRotate(player.getMainHandItem())) {
+        return false;
+      }
+      if (!isClientSide()) {
+        T tunnel = this.getTunnel();
+        boolean isBuffered = !(tunnel != null ? tunnel.isBuffered()
+          : this.isBuffered);
+        if (tunnel != null)
+          tunnel.setBuffered(isBuffered);
+        else
+          this.setBuffered(isBuffered);
+        // tunnels that can't buffer just ignore it
+        boolean didBuffer = tunnel != null ? tunnel.isBuffered() : isBuffered;
+        player
+          .displayClientMessage(TransHelper.GUI
+            .translatable(
+              didBuffer ? "multiP2P.buffered" : "multiP2P.unbuffered"),
+            true);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean onPartShiftActivate(Player player, InteractionHand hand,
+      Vec3 pos) {
+      if (super.onPartShiftActivate(player, hand, pos)) {
+        return true;
+      }
+      if (!this.isOutput() && isEmptyHanded(player, hand)) {
+        if (!isClientSide()) {
+          T tunnel = this.getTunnel();
+          DistributionMode mode = (tunnel != null
+            ? tunnel.getDistributionMode()
+            : this.distributionMode).next();
+          if (tunnel != null)
+            tunnel.setDistributionMode(mode);
+          else
+            this.setDistributionMode(mode);
+          player
+            .displayClientMessage(
+              TransHelper.GUI
+                .translatable("multiP2P.distribution", mode.getName()),
+              true);
+        }
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2025 AE2 Enthusiast
+ *
+ * This file is part of MAE2.
+ *
+ * MAE2 is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * MAE2 is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+package stone.mae2.parts.p2p.multi;
+
+import net.minecraft.network.chat.Component;
+
+import stone.mae2.util.TransHelper;
+
+import java.util.Locale;
+
+/**
+ * How a {@link DistributingMultiP2PTunnel} splits what goes into its inputs
+ * between its outputs
+ */
+public enum DistributionMode {
+  /**
+   * Splits evenly, with the outputs getting what's left over from the split
+   * taking turns. Whatever an output can't take goes to the next one.
+   */
+  ROUND_ROBIN,
+  /**
+   * Fills the output with the highest priority first, then the next
+   * highest, and so on
+   */
+  FILL_FIRST,
+  /**
+   * Splits by how much room each output had the last time the tunnel looked
+   */
+  WEIGHTED;
+
+  private static final DistributionMode[] VALUES = values();
+
+  public DistributionMode next() {
+    return VALUES[(this.ordinal() + 1) % VALUES.length];
+  }
+
+  public Component getName() {
+    return TransHelper.GUI
+      .translatable("multiP2P.distribution." + this.name().toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * @return the mode with the given name, or the default one if there's none
+   */
+  public static DistributionMode byName(String name) {
+    for (DistributionMode mode : VALUES) {
+      if (mode.name().equals(name)) {
+        return mode;
+      }
+    }
+    return ROUND_ROBIN;
+  }
+}
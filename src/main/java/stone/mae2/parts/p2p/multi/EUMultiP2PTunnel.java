@@ -39,6 +39,7 @@ import net.minecraftforge.common.capabilities.Capability;
 import stone.mae2.MAE2;
 import stone.mae2.api.Tickable;
 import stone.mae2.me.service.MultiP2PService;
+import stone.mae2.me.service.TunnelStats;
 
 import java.util.List;
 
@@ -69,6 +70,14 @@ public class EUMultiP2PTunnel extends
    */
   private boolean isSatisfied = false;
 
+  /**
+   * Flag for if the last distribution put this tunnel to sleep
+   * 
+   * Set when there's nothing left in the buffer to distribute. Inputs wake the
+   * tunnel back up once they get EU.
+   */
+  private boolean isSleeping;
+
   public EUMultiP2PTunnel(short freq, IGrid grid) {
     super(freq, grid);
     this.inputHandler = new InputHandler();
@@ -144,6 +153,8 @@ public class EUMultiP2PTunnel extends
       // too bad!
       if (!isSatisfied) {
         buffer += voltage * amperage;
+        if (amperage > 0)
+          wake();
 
         return amperage;
       } else {
@@ -248,7 +259,14 @@ public class EUMultiP2PTunnel extends
   public TickingRequest getTickingRequest() {
     return Tickable
       .toTickingRequest(MAE2.CONFIG.parts().rates().EUMultiP2PTunnel(), false,
-        false);
+        true);
+  }
+
+  private void wake() {
+    if (this.isSleeping) {
+      this.isSleeping = false;
+      MultiP2PService.get(this.grid).alertTickable(this);
+    }
   }
 
   @Override
@@ -278,6 +296,12 @@ public class EUMultiP2PTunnel extends
       && this.buffer >= maxVoltage;
     if (distributed > 0) {
       if (MAE2.CONFIG.parts().isEUP2PNerfed()) {
+        // the nerf taxes through the service instead, so nothing else records
+        // what went through
+        if (TunnelStats.isEnabled())
+          this.stats
+            .recordTransferred(
+              (long) (distributed * maxVoltage * FeCompat.ratio(false)));
         int tier = (int) Math
           .min(GTValues.TIER_COUNT,
             Math.round(Math.log1p(maxVoltage / 8) / Math.log(4)));
@@ -288,6 +312,13 @@ public class EUMultiP2PTunnel extends
             PowerUnits.FE);
       this.maxVoltage = 1;
     }
-    return didWork ? TickRateModulation.FASTER : TickRateModulation.SLOWER;
+    if (didWork)
+      return TickRateModulation.FASTER;
+    // less than an amp left can't go anywhere until more comes in
+    if (this.buffer < this.maxVoltage) {
+      this.isSleeping = true;
+      return TickRateModulation.SLEEP;
+    }
+    return TickRateModulation.SLOWER;
   }
 }
@@ -31,9 +31,14 @@ import net.minecraft.nbt.Tag;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.energy.IEnergyStorage;
+import org.jetbrains.annotations.Nullable;
 
 import stone.mae2.MAE2;
+import stone.mae2.api.LongEnergyStorage;
 import stone.mae2.api.Tickable;
+import stone.mae2.integration.GregTechLongEnergyStorage;
+import stone.mae2.me.service.MultiP2PService;
+import stone.mae2.util.LoadedModsHelper;
 
 import java.util.List;
 
@@ -70,6 +75,14 @@ public class FEMultiP2PTunnel extends
    */
   private boolean isSatisfied;
 
+  /**
+   * Flag for if the last distribution put this tunnel to sleep
+   * 
+   * Set when there's nothing left in the buffer to distribute. Inputs wake the
+   * tunnel back up once they get FE.
+   */
+  private boolean isSleeping;
+
   public FEMultiP2PTunnel(short freq, IGrid grid) {
     super(freq, grid);
     this.inputHandler = new InputHandler();
@@ -94,10 +107,37 @@ public class FEMultiP2PTunnel extends
   @Override
   public Logic addTunnel(Part part, Tag tag) {
     if (tag instanceof CompoundTag data)
-      this.buffer += data.getLong(ENERGY_TAG);
+      this.buffer = saturatedAdd(this.buffer, data.getLong(ENERGY_TAG));
     return addTunnel(part);
   }
 
+  private static long saturatedAdd(long a, long b) {
+    long sum = a + b;
+    // the sum having a different sign from both means it wrapped around
+    return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+  }
+
+  private static int clampToInt(long amount) {
+    return (int) Math.min(amount, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Puts as much as fits into the buffer
+   *
+   * @return how much fit, only short of the amount if the buffer's about to
+   *         overflow a long
+   */
+  private long receive(long amount, boolean simulate) {
+    if (this.isSatisfied || amount <= 0)
+      return 0;
+    long accepted = Math.min(amount, Long.MAX_VALUE - this.buffer);
+    if (!simulate && accepted > 0) {
+      this.buffer += accepted;
+      wake();
+    }
+    return accepted;
+  }
+
   public static class Part extends
     CapabilityMultiP2PTunnel.Part<FEMultiP2PTunnel, Logic, Part, IEnergyStorage> {
     private static final P2PModels MODELS = new P2PModels(
@@ -129,22 +169,55 @@ public class FEMultiP2PTunnel extends
   public class Logic extends
     CapabilityMultiP2PTunnel<FEMultiP2PTunnel, Logic, Part, IEnergyStorage>.Logic {
 
+    /**
+     * GregTech energy container in front of this part, looked up again
+     * whenever the FE capability there changes
+     */
+    private LongEnergyStorage gregTechStorage;
+    private boolean isGregTechResolved;
+
     public Logic(Part part) {
       super(part);
     }
+
+    /**
+     * @param storage the FE capability in front of this part
+     * @return a way to push longs into whatever's in front of this part, null
+     *         if it only takes ints
+     */
+    @Nullable
+    private LongEnergyStorage getLongStorage(IEnergyStorage storage) {
+      if (storage instanceof LongEnergyStorage longStorage)
+        return longStorage;
+      // only blocks that already take FE, GregTech decides if they convert it
+      if (storage == emptyHandler || !LoadedModsHelper.isGregTech)
+        return null;
+      if (!this.isGregTechResolved) {
+        this.gregTechStorage = GregTechLongEnergyStorage
+          .find(this.part.getLevel().getBlockEntity(getFacingPos()),
+            this.part.getSide().getOpposite());
+        this.isGregTechResolved = true;
+      }
+      return this.gregTechStorage;
+    }
+
+    @Override
+    protected void onAdjacentCapabilityChanged() {
+      this.gregTechStorage = null;
+      this.isGregTechResolved = false;
+    }
   }
 
-  private class InputHandler implements IEnergyStorage {
+  private class InputHandler implements LongEnergyStorage {
     @Override
     public int receiveEnergy(int maxReceive, boolean simulate) {
-      if (isSatisfied) {
-        return 0;
-      } else {
-        if (!simulate)
-          // yes this breaks if more than max long is transfered, too bad!
-          buffer += maxReceive;
-        return maxReceive;
-      }
+      // cast is okay because it never receives more than it's given
+      return (int) receive(maxReceive, simulate);
+    }
+
+    @Override
+    public long receiveEnergyLong(long maxReceive, boolean simulate) {
+      return receive(maxReceive, simulate);
     }
 
     @Override
@@ -191,13 +264,7 @@ public class FEMultiP2PTunnel extends
     }
 
     @Override
-    public int getEnergyStored() {
-      try {
-        return Math.toIntExact(buffer);
-      } catch (ArithmeticException e) {
-        return Integer.MAX_VALUE;
-      }
-    }
+    public int getEnergyStored() { return clampToInt(buffer); }
 
     @Override
     public int getMaxEnergyStored() { return Integer.MAX_VALUE; }
@@ -255,7 +322,14 @@ public class FEMultiP2PTunnel extends
   public TickingRequest getTickingRequest() {
     return Tickable
       .toTickingRequest(MAE2.CONFIG.parts().rates().FEMultiP2PTunnel(), false,
-        false);
+        true);
+  }
+
+  private void wake() {
+    if (this.isSleeping) {
+      this.isSleeping = false;
+      MultiP2PService.get(this.grid).alertTickable(this);
+    }
   }
 
   @Override
@@ -264,14 +338,18 @@ public class FEMultiP2PTunnel extends
     long distributed = this.extracted;
     this.extracted = 0;
     for (var output : this.outputs) {
+      if (this.buffer <= 0)
+        break;
       try (var guard = output.getAdjacentCapability()) {
-        int toInsert;
-        try {
-          toInsert = Math.toIntExact(this.buffer);
-        } catch (ArithmeticException e) {
-          toInsert = Integer.MAX_VALUE;
-        }
-        int inserted = guard.get().receiveEnergy(toInsert, false);
+        IEnergyStorage storage = guard.get();
+        // long storages, like other tunnels, take the whole buffer at once
+        LongEnergyStorage longStorage = output.getLongStorage(storage);
+        long inserted = longStorage == null ? 0
+          : longStorage.receiveEnergyLong(this.buffer, false);
+        // GregTech only takes whole amps, so leftovers go the int way
+        if (inserted < this.buffer)
+          inserted += storage
+            .receiveEnergy(clampToInt(this.buffer - inserted), false);
         didWork |= inserted > 0;
         distributed += inserted;
         this.buffer -= inserted;
@@ -279,6 +357,12 @@ public class FEMultiP2PTunnel extends
     }
     this.isSatisfied = this.buffer / 2 > distributed;
     this.deductEnergyCost(distributed, PowerUnits.FE);
-    return didWork ? TickRateModulation.FASTER : TickRateModulation.SLOWER;
+    if (didWork)
+      return TickRateModulation.FASTER;
+    if (this.buffer <= 0) {
+      this.isSleeping = true;
+      return TickRateModulation.SLEEP;
+    }
+    return TickRateModulation.SLOWER;
   }
 }
@@ -22,8 +22,11 @@ import java.util.List;
 import java.util.Set;
 
 import appeng.api.networking.IGrid;
+import appeng.api.networking.ticking.TickingRequest;
 import appeng.api.parts.IPartItem;
 import appeng.api.parts.IPartModel;
+import appeng.api.stacks.AEFluidKey;
+import appeng.api.stacks.AEKey;
 import appeng.api.stacks.AEKeyType;
 import appeng.items.parts.PartModels;
 import appeng.parts.p2p.P2PModels;
@@ -32,8 +35,12 @@ import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.IFluidHandler;
 import stone.mae2.MAE2;
+import stone.mae2.api.Tickable;
+
+public class FluidMultiP2PTunnel extends DistributingMultiP2PTunnel<FluidMultiP2PTunnel, FluidMultiP2PTunnel.Logic, FluidMultiP2PTunnel.Part, IFluidHandler, FluidStack> {
+  // how many mB the buffer holds per output, a tank's worth
+  private static final int BUFFER_PER_OUTPUT = 16 * AEFluidKey.AMOUNT_BUCKET;
 
-public class FluidMultiP2PTunnel extends CapabilityMultiP2PTunnel<FluidMultiP2PTunnel, FluidMultiP2PTunnel.Logic, FluidMultiP2PTunnel.Part, IFluidHandler> {
   public FluidMultiP2PTunnel(short freq, IGrid grid) {
     super(freq, grid);
     this.inputHandler = new InputHandler();
@@ -43,13 +50,25 @@ public class FluidMultiP2PTunnel extends CapabilityMultiP2PTunnel<FluidMultiP2PT
 
   private static final IFluidHandler NULL_FLUID_HANDLER = new NullHandler();
 
-  public class Logic extends CapabilityMultiP2PTunnel<FluidMultiP2PTunnel, Logic, Part, IFluidHandler>.Logic {
+  @Override
+  protected long getBufferPerOutput() {
+    return BUFFER_PER_OUTPUT;
+  }
+
+  @Override
+  public TickingRequest getTickingRequest() {
+    return Tickable
+      .toTickingRequest(MAE2.CONFIG.parts().rates().FluidMultiP2PTunnel(), true,
+        true);
+  }
+
+  public class Logic extends DistributingMultiP2PTunnel<FluidMultiP2PTunnel, Logic, Part, IFluidHandler, FluidStack>.Logic {
     public Logic(Part part) {
       super(part);
     }
   }
 
-  public static class Part extends CapabilityMultiP2PTunnel.Part<FluidMultiP2PTunnel, Logic, Part, IFluidHandler> {
+  public static class Part extends DistributingMultiP2PTunnel.Part<FluidMultiP2PTunnel, Logic, Part, IFluidHandler, FluidStack> {
     public Part(IPartItem<?> partItem) {
       super(partItem);
     }
@@ -101,31 +120,15 @@ public class FluidMultiP2PTunnel extends CapabilityMultiP2PTunnel<FluidMultiP2PT
 
     @Override
     public int fill(FluidStack resource, FluidAction action) {
-      int total = 0;
-
-      final int outputTunnels = FluidMultiP2PTunnel.this.getOutputs().size();
-      final int amount = resource.getAmount();
-
-      if (outputTunnels == 0 || amount == 0) {
+      if (resource.isEmpty()) {
         return 0;
       }
-
-      final int amountPerOutput = amount / outputTunnels;
-      int overflow = amountPerOutput == 0 ? amount : amount % amountPerOutput;
-
-      for (Logic output : FluidMultiP2PTunnel.this.getOutputs()) {
-        try (var capabilityGuard = output.getAdjacentCapability()) {
-          final IFluidHandler handler = capabilityGuard.get();
-          final int toSend = amountPerOutput + overflow;
-          final FluidStack fillWithFluidStack = resource.copy();
-          fillWithFluidStack.setAmount(toSend);
-
-          final int received = handler.fill(fillWithFluidStack, action);
-
-          overflow = toSend - received;
-          total += received;
-        }
+      if (isBuffered()) {
+        // taxed once it's distributed
+        return buffer(resource, resource.getAmount(), action.simulate());
       }
+      final int total = distribute(resource, resource.getAmount(),
+        action.simulate());
 
       if (action == FluidAction.EXECUTE) {
         FluidMultiP2PTunnel.this.deductTransportCost(total, AEKeyType.fluids());
@@ -291,6 +294,25 @@ public class FluidMultiP2PTunnel extends CapabilityMultiP2PTunnel<FluidMultiP2PT
     }
   }
 
+  @Override
+  protected int insert(IFluidHandler handler, FluidStack resource, int amount,
+    boolean simulate) {
+    return handler
+      .fill(new FluidStack(resource, amount),
+        simulate ? IFluidHandler.FluidAction.SIMULATE
+          : IFluidHandler.FluidAction.EXECUTE);
+  }
+
+  @Override
+  protected AEKey getKey(FluidStack resource) {
+    return AEFluidKey.of(resource);
+  }
+
+  @Override
+  protected FluidStack toResource(AEKey key) {
+    return ((AEFluidKey) key).toStack(AEFluidKey.AMOUNT_BUCKET);
+  }
+
   @Override
   protected Capability<IFluidHandler> getCapability() {
     return ForgeCapabilities.FLUID_HANDLER;
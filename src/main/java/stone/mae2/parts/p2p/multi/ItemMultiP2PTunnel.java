@@ -18,12 +18,17 @@
  */
 package stone.mae2.parts.p2p.multi;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
 import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridNodeListener;
+import appeng.api.networking.ticking.TickingRequest;
 import appeng.api.parts.IPartItem;
 import appeng.api.parts.IPartModel;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
 import appeng.api.stacks.AEKeyType;
 import appeng.items.parts.PartModels;
 import appeng.parts.p2p.P2PModels;
@@ -33,25 +38,58 @@ import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
 import stone.mae2.MAE2;
+import stone.mae2.api.Tickable;
+
+public class ItemMultiP2PTunnel extends DistributingMultiP2PTunnel<ItemMultiP2PTunnel, ItemMultiP2PTunnel.Logic, ItemMultiP2PTunnel.Part, IItemHandler, ItemStack> {
+  // how many items the buffer holds per output
+  private static final int BUFFER_PER_OUTPUT = 64;
+
+  private final OutputHandler slotIndex;
 
-public class ItemMultiP2PTunnel extends CapabilityMultiP2PTunnel<ItemMultiP2PTunnel, ItemMultiP2PTunnel.Logic, ItemMultiP2PTunnel.Part, IItemHandler> {
   public ItemMultiP2PTunnel(short freq, IGrid grid) {
     super(freq, grid);
     this.inputHandler = new InputHandler();
-    this.outputHandler = new OutputHandler();
+    this.outputHandler = this.slotIndex = new OutputHandler();
     this.emptyHandler = NULL_ITEM_HANDLER;
   }
 
   private static final IItemHandler NULL_ITEM_HANDLER = new NullHandler();
 
-  public class Logic extends CapabilityMultiP2PTunnel<ItemMultiP2PTunnel, Logic, Part, IItemHandler>.Logic {
+  @Override
+  protected long getBufferPerOutput() {
+    return BUFFER_PER_OUTPUT;
+  }
+
+  @Override
+  public TickingRequest getTickingRequest() {
+    return Tickable
+      .toTickingRequest(MAE2.CONFIG.parts().rates().ItemMultiP2PTunnel(), true,
+        true);
+  }
+
+  public class Logic extends DistributingMultiP2PTunnel<ItemMultiP2PTunnel, Logic, Part, IItemHandler, ItemStack>.Logic {
     public Logic(Part part) {
       super(part);
     }
 
+    @Override
+    public void onTunnelNetworkChange() {
+      slotIndex.invalidate();
+      super.onTunnelNetworkChange();
+    }
+
+    @Override
+    protected void onAdjacentCapabilityChanged() {
+      super.onAdjacentCapabilityChanged();
+      slotIndex.invalidate();
+    }
+
+    void onStateChanged() {
+      slotIndex.invalidate();
+    }
   }
 
-  public static class Part extends CapabilityMultiP2PTunnel.Part<ItemMultiP2PTunnel, Logic, Part, IItemHandler> {
+  public static class Part extends DistributingMultiP2PTunnel.Part<ItemMultiP2PTunnel, Logic, Part, IItemHandler, ItemStack> {
     public Part(IPartItem<?> partItem) {
       super(partItem);
     }
@@ -69,6 +107,14 @@ public class ItemMultiP2PTunnel extends CapabilityMultiP2PTunnel<ItemMultiP2PTun
       return MODELS.getModel(this.isPowered(), this.isActive());
     }
 
+    @Override
+    protected void onMainNodeStateChanged(IGridNodeListener.State reason) {
+      super.onMainNodeStateChanged(reason);
+      // inactive inputs expose no slots, so the slot index has to be redone
+      if (this.logic != null)
+        this.logic.onStateChanged();
+    }
+
     @Override
     public ItemMultiP2PTunnel createTunnel(short freq) {
       return new ItemMultiP2PTunnel(freq, this.getGridNode().getGrid());
@@ -94,59 +140,31 @@ public class ItemMultiP2PTunnel extends CapabilityMultiP2PTunnel<ItemMultiP2PTun
 
     @Override
     public ItemStack insertItem(int slot, ItemStack stack, boolean simulate) {
-      int remainder = stack.getCount();
-
-      final int outputTunnels = ItemMultiP2PTunnel.this.getOutputs().size();
-      final int amount = stack.getCount();
-
-      if (outputTunnels == 0 || amount == 0) {
+      if (stack.isEmpty()) {
         return stack;
       }
-
-      final int amountPerOutput = amount / outputTunnels;
-      int overflow = amountPerOutput == 0 ? amount : amount % amountPerOutput;
-
-      for (Logic output : ItemMultiP2PTunnel.this.getOutputs()) {
-        try (var capabilityGuard = output.getAdjacentCapability()) {
-          final IItemHandler handler = capabilityGuard.get();
-          final int toSend = amountPerOutput + overflow;
-
-          if (toSend <= 0) {
-            // Both overflow and amountPerOutput are 0, so they will be for
-            // further outputs as well.
-            break;
-          }
-
-          // So the documentation says that copying the stack should not be
-          // necessary because it is not
-          // supposed to be stored or modifed by insertItem. However,
-          // ItemStackHandler will gladly store
-          // the stack so we need to do a defensive copy. Forgecord says this is
-          // the intended behavior,
-          // and the documentation is wrong.
-          ItemStack stackCopy = stack.copy();
-          stackCopy.setCount(toSend);
-          final int sent = toSend - ItemHandlerHelper
-            .insertItem(handler, stackCopy, simulate).getCount();
-
-          overflow = toSend - sent;
-          remainder -= sent;
+      // a simulation can't see what it'd already have put in, so callers are
+      // only promised a stack at a time
+      final int amount = simulate
+        ? Math.min(stack.getCount(), stack.getMaxStackSize())
+        : stack.getCount();
+      final int sent;
+      if (isBuffered()) {
+        // taxed once it's distributed
+        sent = buffer(stack, amount, simulate);
+      } else {
+        sent = distribute(stack, amount, simulate);
+        if (!simulate) {
+          ItemMultiP2PTunnel.this.deductTransportCost(sent, AEKeyType.items());
         }
       }
 
-      if (!simulate) {
-        ItemMultiP2PTunnel.this.deductTransportCost(amount - remainder,
-          AEKeyType.items());
-      }
-
-      if (remainder == stack.getCount()) {
+      if (sent == 0) {
         return stack;
-      } else if (remainder == 0) {
+      } else if (sent == stack.getCount()) {
         return ItemStack.EMPTY;
       } else {
-        ItemStack copy = stack.copy();
-        copy.setCount(remainder);
-        return copy;
+        return stack.copyWithCount(stack.getCount() - sent);
       }
     }
 
@@ -167,32 +185,90 @@ public class ItemMultiP2PTunnel extends CapabilityMultiP2PTunnel<ItemMultiP2PTun
 
   }
 
-  // TODO make this not completely terrible for performance
+  /**
+   * Flattened view of every input's adjacent inventory
+   *
+   * Each input's slots are laid out one after another. The slot count of each
+   * input is cached as a prefix sum, so finding the inventory behind a slot is
+   * a binary search instead of asking every input for its slot count. The
+   * index is rebuilt lazily after a tunnel network change, a node state change
+   * or the inventory in front of one of the parts changing.
+   */
   private class OutputHandler implements IItemHandler {
-    @Override
-    public int getSlots() {
+    private Logic[] sources = new Logic[0];
+    // slotOffsets[i] is the first slot of sources[i], and
+    // slotOffsets[sources.length] is the total slot count
+    private int[] slotOffsets = new int[1];
+    private boolean isDirty = true;
+
+    void invalidate() {
+      this.isDirty = true;
+    }
+
+    private void rebuild() {
+      Set<Logic> inputs = ItemMultiP2PTunnel.this.getInputs();
+      Logic[] newSources = new Logic[inputs.size()];
+      int[] newOffsets = new int[inputs.size() + 1];
+      int count = 0;
       int slots = 0;
-      for (Logic input : ItemMultiP2PTunnel.this.getInputs()) {
+      boolean isComplete = true;
+      for (Logic input : inputs) {
         try (var guard = input.getAdjacentCapability()) {
-          slots += guard.get().getSlots();
+          // a nested access only sees the empty handler, so whatever gets
+          // built here can't be trusted past this call
+          isComplete &= !guard.isNested();
+          int inputSlots = guard.get().getSlots();
+          if (inputSlots > 0) {
+            newSources[count] = input;
+            newOffsets[count] = slots;
+            slots += inputSlots;
+            count++;
+          }
         }
       }
-      return slots;
+      newOffsets[count] = slots;
+      this.sources = Arrays.copyOf(newSources, count);
+      this.slotOffsets = Arrays.copyOf(newOffsets, count + 1);
+      this.isDirty = !isComplete;
+    }
+
+    /**
+     * @return index into {@link #sources} backing the slot, -1 if none do
+     */
+    private int findSource(int slot) {
+      if (this.isDirty) {
+        rebuild();
+      }
+      if (slot < 0 || slot >= this.slotOffsets[this.sources.length]) {
+        return -1;
+      }
+      int index = Arrays
+        .binarySearch(this.slotOffsets, 0, this.sources.length, slot);
+      // offsets are strictly increasing, so a miss lands right after the
+      // source containing the slot
+      return index >= 0 ? index : -index - 2;
+    }
+
+    @Override
+    public int getSlots() {
+      if (this.isDirty) {
+        rebuild();
+      }
+      return this.slotOffsets[this.sources.length];
     }
 
     @Override
     public ItemStack getStackInSlot(int slot) {
-      Set<Logic> inputs = ItemMultiP2PTunnel.this.getInputs();
-      int currentSlot = slot;
-      for (Logic input : inputs) {
-        try (var guard = input.getAdjacentCapability()) {
-          IItemHandler handler = guard.get();
-          int slotCount = handler.getSlots();
-          if (currentSlot < slotCount) {
-            return handler.getStackInSlot(currentSlot);
-          } else {
-            currentSlot -= slotCount;
-          }
+      int index = findSource(slot);
+      if (index < 0) {
+        return ItemStack.EMPTY;
+      }
+      try (var guard = this.sources[index].getAdjacentCapability()) {
+        IItemHandler handler = guard.get();
+        int localSlot = slot - this.slotOffsets[index];
+        // the adjacent inventory may have shrunk without a block update
+        if (localSlot < handler.getSlots()) {
+          return handler.getStackInSlot(localSlot);
         }
       }
       return ItemStack.EMPTY;
@@ -205,17 +281,15 @@ public class ItemMultiP2PTunnel extends CapabilityMultiP2PTunnel<ItemMultiP2PTun
 
     @Override
     public ItemStack extractItem(int slot, int amount, boolean simulate) {
-      Set<Logic> inputs = ItemMultiP2PTunnel.this.getInputs();
-      int currentSlot = slot;
-      for (Logic input : inputs) {
-        try (var guard = input.getAdjacentCapability()) {
-          IItemHandler handler = guard.get();
-          int slotCount = handler.getSlots();
-          if (currentSlot < slotCount) {
-            return handler.extractItem(currentSlot, amount, simulate);
-          } else {
-            currentSlot -= slotCount;
-          }
+      int index = findSource(slot);
+      if (index < 0) {
+        return ItemStack.EMPTY;
+      }
+      try (var guard = this.sources[index].getAdjacentCapability()) {
+        IItemHandler handler = guard.get();
+        int localSlot = slot - this.slotOffsets[index];
+        if (localSlot < handler.getSlots()) {
+          return handler.extractItem(localSlot, amount, simulate);
         }
       }
       return ItemStack.EMPTY;
@@ -265,6 +339,59 @@ public class ItemMultiP2PTunnel extends CapabilityMultiP2PTunnel<ItemMultiP2PTun
     }
   }
 
+  @Override
+  protected int insert(IItemHandler handler, ItemStack stack, int amount,
+    boolean simulate) {
+    // So the documentation says that copying the stack should not be
+    // necessary because it is not supposed to be stored or modifed by
+    // insertItem. However, ItemStackHandler will gladly store the stack so we
+    // need to do a defensive copy. Forgecord says this is the intended
+    // behavior, and the documentation is wrong.
+    int maxStackSize = stack.getMaxStackSize();
+    if (amount <= maxStackSize) {
+      return amount - ItemHandlerHelper
+        .insertItem(handler, stack.copyWithCount(amount), simulate)
+        .getCount();
+    }
+    if (simulate) {
+      // simulating stack after stack would keep landing in the same slot, so
+      // ask each slot on its own. This is how weighted sees an output's room
+      int room = 0;
+      for (int slot = 0; slot < handler.getSlots() && room < amount; slot++) {
+        int toInsert = Math
+          .min(amount - room,
+            Math.max(maxStackSize, handler.getSlotLimit(slot)));
+        room += toInsert - handler
+          .insertItem(slot, stack.copyWithCount(toInsert), true)
+          .getCount();
+      }
+      return room;
+    }
+    // plenty of handlers assume they never see more than a stack at once,
+    // which the buffer or a weighted split can easily go over
+    int sent = 0;
+    while (sent < amount) {
+      int toInsert = Math.min(amount - sent, maxStackSize);
+      int inserted = toInsert - ItemHandlerHelper
+        .insertItem(handler, stack.copyWithCount(toInsert), false)
+        .getCount();
+      sent += inserted;
+      if (inserted < toInsert)
+        break;
+    }
+    return sent;
+  }
+
+  @Override
+  protected AEKey getKey(ItemStack stack) {
+    return AEItemKey.of(stack);
+  }
+
+  @Override
+  protected ItemStack toResource(AEKey key) {
+    return ((AEItemKey) key).toStack();
+  }
+
   @Override
   protected Capability<IItemHandler> getCapability() {
     return ForgeCapabilities.ITEM_HANDLER;
@@ -35,6 +35,7 @@ import org.jetbrains.annotations.Nullable;
 
 import stone.mae2.api.features.MultiP2PTunnelAttunement;
 import stone.mae2.me.service.MultiP2PService;
+import stone.mae2.me.service.TunnelStats;
 
 import java.util.Set;
 
@@ -72,11 +73,17 @@ public abstract class MultiP2PTunnel<T extends MultiP2PTunnel<T, L, P>, L extend
 
   private Component customName;
 
+  protected final TunnelStats stats = new TunnelStats();
+
   public MultiP2PTunnel(short freq, IGrid grid) {
     this.freq = freq;
     this.grid = grid;
   }
 
+  public short getFrequency() { return this.freq; }
+
+  public TunnelStats getStats() { return this.stats; }
+
   /**
    * Adds a {@link MultiP2PTunnelPart} to this {@link MultiP2PTunnel},
    * input/ouput is automatically decided
@@ -169,6 +176,9 @@ public abstract class MultiP2PTunnel<T extends MultiP2PTunnel<T, L, P>, L extend
 
   protected void deductEnergyCost(double energyTransported,
     PowerUnits typeTransported) {
+    if (TunnelStats.isEnabled()) {
+      this.stats.recordTransferred((long) energyTransported);
+    }
     var costFactor = AEConfig.instance().getP2PTunnelEnergyTax();
     if (costFactor <= 0) {
       return;
@@ -183,6 +193,9 @@ public abstract class MultiP2PTunnel<T extends MultiP2PTunnel<T, L, P>, L extend
 
   protected void deductTransportCost(long amountTransported,
     AEKeyType typeTransported) {
+    if (TunnelStats.isEnabled()) {
+      this.stats.recordTransferred(amountTransported);
+    }
     var costFactor = AEConfig.instance().getP2PTunnelTransportTax();
     if (costFactor <= 0) {
       return;
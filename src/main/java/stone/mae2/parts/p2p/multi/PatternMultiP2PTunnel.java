@@ -1,5 +1,6 @@
 package stone.mae2.parts.p2p.multi;
 
+import appeng.api.implementations.blockentities.ICraftingMachine;
 import appeng.api.implementations.blockentities.PatternContainerGroup;
 import appeng.api.networking.IGrid;
 import appeng.api.networking.crafting.ICraftingProvider;
@@ -22,6 +23,7 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.LazyOptional;
@@ -32,6 +34,7 @@ import stone.mae2.parts.p2p.PatternP2PPartLogic.PatternP2PPartLogicHost;
 import stone.mae2.parts.p2p.PatternP2PTunnelLogic;
 import stone.mae2.parts.p2p.PatternP2PTunnelLogic.PatternP2PTunnel;
 import stone.mae2.parts.p2p.PatternP2PTunnelLogic.Target;
+import stone.mae2.parts.p2p.TargetLookup;
 import stone.mae2.util.TransHelper;
 
 import java.util.ArrayList;
@@ -57,7 +60,7 @@ public class PatternMultiP2PTunnel extends
     Logic logic = super.addTunnel(part);
     if (part.isOutput()) {
       this.outputs.add(part);
-      this.logic.refreshOutputs();
+      this.logic.addOutput(part);
     } else {
       this.inputs.add(part);
       this.logic.refreshInputs();
@@ -69,7 +72,7 @@ public class PatternMultiP2PTunnel extends
   public boolean removeTunnel(Part part) {
     if (part.isOutput()) {
       this.outputs.remove(part);
-      this.logic.refreshOutputs();
+      this.logic.removeOutput(part);
     } else {
       this.inputs.remove(part);
       this.logic.refreshInputs();
@@ -132,6 +135,14 @@ public class PatternMultiP2PTunnel extends
       super(part);
     }
 
+    /**
+     * Lets the tunnel push into this output again
+     */
+    public void onOutputChanged() {
+      if (this.part.isOutput())
+        PatternMultiP2PTunnel.this.logic.onOutputChanged(this.part);
+    }
+
     public <T> LazyOptional<T> getCapability(Capability<T> capabilityClass) {
       if (capabilityClass == Capabilities.CRAFTING_MACHINE)
         return (LazyOptional<T>) LazyOptional
@@ -171,6 +182,7 @@ public class PatternMultiP2PTunnel extends
 
     private final PatternP2PPartLogic partLogic = new PatternP2PPartLogic(this);
     private PatternProviderTargetCache cache;
+    private final TargetLookup lookup = new TargetLookup(this);
 
     public Part(IPartItem<?> partItem) {
       super(partItem);
@@ -243,6 +255,37 @@ public class PatternMultiP2PTunnel extends
       this.partLogic.addToSendList(what, l);
     }
 
+    @Override
+    public void onSendListDrained() {
+      if (this.logic != null)
+        this.logic.onOutputChanged();
+    }
+
+    @Override
+    public void onNeighborChanged(BlockGetter level, BlockPos pos,
+      BlockPos neighbor) {
+      if (this.pos().equals(neighbor)) {
+        this.lookup.invalidate();
+        if (this.logic != null)
+          this.logic.onOutputChanged();
+      }
+    }
+
+    @Override
+    public BlockEntity getTargetBlockEntity() {
+      return this.lookup.getBlockEntity();
+    }
+
+    @Override
+    public ICraftingMachine getTargetCraftingMachine() {
+      return this.lookup.getCraftingMachine();
+    }
+
+    @Override
+    public ICraftingProvider getTargetCraftingProvider() {
+      return this.lookup.getCraftingProvider();
+    }
+
     @Override
     public BlockPos pos() {
       return this.getBlockEntity().getBlockPos().relative(this.getSide());
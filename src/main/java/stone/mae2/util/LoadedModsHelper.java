@@ -5,4 +5,6 @@ import net.minecraftforge.fml.loading.LoadingModList;
 public class LoadedModsHelper {
   public static final boolean isFork = LoadingModList.get().getMods().stream()
     .anyMatch(info -> info.getModId().equals("ae2") && info.getVersion().getQualifier().contains("cosmolite"));
+  public static final boolean isGregTech = LoadingModList.get()
+    .getModFileById("gtceu") != null;
 }
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -268,6 +269,117 @@ class EvaluatorTest {
         assertTrue(evaluate("minecraft:stone > 10 || minecraft:stone > 100 ^ minecraft:diamond > 10 && minecraft:diamond > 100"));
     }
 
+    @Test
+    void testConditionEquality() {
+        // true == true
+        assertTrue(evaluate("minecraft:stone > 10 == minecraft:diamond > 10"));
+        // true != false
+        assertTrue(evaluate("minecraft:stone > 10 != minecraft:dirt > 10"));
+        assertFalse(evaluate("minecraft:stone > 10 == minecraft:dirt > 10"));
+    }
+
+    @Test
+    void testCompiledExpressionReuse() {
+        CompiledExpression compiled = CompiledExpression.compile(parse("minecraft:stone > 50"));
+        assertTrue(compiled.evaluate(inventory));
+        inventory.setCount("minecraft:stone", 40L);
+        assertFalse(compiled.evaluate(inventory));
+    }
+
+    @Test
+    void testShortCircuitSkipsCounts() {
+        List<String> requested = new ArrayList<>();
+        InventoryContext recording = tag -> {
+            requested.add(tag);
+            return inventory.getCount(tag);
+        };
+        CompiledExpression compiled = CompiledExpression.compile(parse("minecraft:dirt > 10 && minecraft:stone > 10"));
+        assertFalse(compiled.evaluate(recording));
+        assertEquals(List.of("minecraft:dirt"), requested);
+    }
+
+    @Test
+    void testCheapSideFirst() {
+        List<String> requested = new ArrayList<>();
+        InventoryContext recording = tag -> {
+            requested.add(tag);
+            return inventory.getCount(tag);
+        };
+        // The exact id is checked before the wildcard even though it's written last
+        CompiledExpression compiled = CompiledExpression.compile(parse("minecraft:*_log > 1 && minecraft:dirt > 10"));
+        assertFalse(compiled.evaluate(recording));
+        assertEquals(List.of("minecraft:dirt"), requested);
+
+        requested.clear();
+        compiled = CompiledExpression.compile(parse("minecraft:*_log > 100 || minecraft:stone > 10"));
+        assertTrue(compiled.evaluate(recording));
+        assertEquals(List.of("minecraft:stone"), requested);
+    }
+
+    @Test
+    void testArithmetic() {
+        // stone = 64, oak = 10, birch = 5, diamond = 32
+        assertTrue(evaluate("minecraft:oak_log + minecraft:birch_log == 15"));
+        assertTrue(evaluate("minecraft:stone - minecraft:diamond * 2 == 0"));
+        assertTrue(evaluate("minecraft:stone / minecraft:oak_log == 6"));
+        assertTrue(evaluate("minecraft:stone % minecraft:oak_log == 4"));
+        assertTrue(evaluate("(minecraft:oak_log + minecraft:birch_log) * 2 == 30"));
+        assertTrue(evaluate("-minecraft:oak_log < 0"));
+        assertTrue(evaluate("2*minecraft:stone == 128"));
+    }
+
+    @Test
+    void testRatio() {
+        // at least twice as many diamonds as logs
+        assertFalse(evaluate("minecraft:diamond >= minecraft:*_log * 3"));
+        assertTrue(evaluate("minecraft:diamond >= minecraft:*_log * 2"));
+    }
+
+    @Test
+    void testDivideByZero() {
+        assertTrue(evaluate("minecraft:stone / minecraft:dirt == 0"));
+        assertTrue(evaluate("minecraft:stone % minecraft:dirt == 0"));
+    }
+
+    @Test
+    void testSaturation() {
+        inventory.setCount("mod:huge", Long.MAX_VALUE);
+        assertTrue(evaluate("mod:huge + 1 == 9223372036854775807"));
+        assertTrue(evaluate("mod:huge * 2 > 0"));
+        assertTrue(evaluate("-mod:huge - 10 < 0"));
+        assertTrue(evaluate("-mod:huge * mod:huge < 0"));
+        assertTrue(evaluate("sum(mod:huge, mod:huge) == mod:huge"));
+    }
+
+    @Test
+    void testSaturatingMath() {
+        assertEquals(Long.MAX_VALUE, CompiledExpression.add(Long.MAX_VALUE, 1));
+        assertEquals(Long.MIN_VALUE, CompiledExpression.add(Long.MIN_VALUE, -1));
+        assertEquals(Long.MAX_VALUE, CompiledExpression.subtract(Long.MAX_VALUE, -1));
+        assertEquals(Long.MIN_VALUE, CompiledExpression.subtract(Long.MIN_VALUE, 1));
+        assertEquals(Long.MIN_VALUE, CompiledExpression.multiply(Long.MAX_VALUE, -2));
+        assertEquals(Long.MAX_VALUE, CompiledExpression.multiply(Long.MIN_VALUE, -1));
+        assertEquals(-6, CompiledExpression.multiply(-2, 3));
+        assertEquals(Long.MAX_VALUE, CompiledExpression.divide(Long.MIN_VALUE, -1));
+        assertEquals(Long.MAX_VALUE, CompiledExpression.negate(Long.MIN_VALUE));
+    }
+
+    @Test
+    void testFunctions() {
+        assertTrue(evaluate("min(minecraft:stone, minecraft:diamond, 100) == 32"));
+        assertTrue(evaluate("max(minecraft:stone, minecraft:diamond) == 64"));
+        assertTrue(evaluate("sum(minecraft:oak_log, minecraft:birch_log, 1) == 16"));
+        assertTrue(evaluate("max(minecraft:dirt) == 0"));
+    }
+
+    @Test
+    void testCraftable() {
+        inventory.setCraftable("minecraft:oak_planks");
+        assertTrue(evaluate("craftable(minecraft:oak_planks)"));
+        assertTrue(evaluate("craftable(minecraft:*_planks) && minecraft:oak_log > 0"));
+        assertFalse(evaluate("craftable(minecraft:stone)"));
+    }
+
     private boolean evaluate(String expression) {
         Evaluator evaluator = new Evaluator(inventory);
         return evaluator.evaluate(parse(expression));
@@ -268,6 +268,78 @@ class ExpressionParserTest {
         assertTrue(and.getRight() instanceof UnaryNode);
     }
 
+    @Test
+    void testTypes() {
+        assertEquals(ValueType.BOOLEAN, parse("minecraft:stone > 10").getType());
+        assertEquals(ValueType.BOOLEAN, parse("a > 1 == b < 2").getType());
+    }
+
+    @Test
+    void testNumberAsCondition() {
+        assertThrows(RuntimeException.class, () -> parse("minecraft:stone"));
+        assertThrows(RuntimeException.class, () -> parse("minecraft:stone && minecraft:dirt > 1"));
+        assertThrows(RuntimeException.class, () -> parse("!minecraft:stone"));
+    }
+
+    @Test
+    void testConditionAsNumber() {
+        assertThrows(RuntimeException.class, () -> parse("a > 1 > 2"));
+        assertThrows(RuntimeException.class, () -> parse("(a > 1) == 2"));
+    }
+
+    @Test
+    void testArithmeticPrecedence() {
+        // a + b * 2 > 10 parses as (a + (b * 2)) > 10
+        BinaryNode comparison = (BinaryNode) parse("a + b * 2 > 10");
+        assertEquals(TokenType.GT, comparison.getOperator());
+        BinaryNode sum = (BinaryNode) comparison.getLeft();
+        assertEquals(TokenType.PLUS, sum.getOperator());
+        assertEquals(ValueType.NUMBER, sum.getType());
+        assertEquals(TokenType.MULTIPLY, ((BinaryNode) sum.getRight()).getOperator());
+    }
+
+    @Test
+    void testArithmeticTypes() {
+        assertThrows(RuntimeException.class, () -> parse("a + 1"));
+        assertThrows(RuntimeException.class, () -> parse("(a > 1) + 2 > 0"));
+        assertThrows(RuntimeException.class, () -> parse("-(a > 1)"));
+        assertThrows(RuntimeException.class, () -> parse("!a * 2 > 0"));
+    }
+
+    @Test
+    void testFunctions() {
+        Node node = parse("min(a, b / 2, 10) > max(c)");
+        BinaryNode comparison = (BinaryNode) node;
+        FunctionNode min = (FunctionNode) comparison.getLeft();
+        assertEquals(FunctionNode.Function.MIN, min.getFunction());
+        assertEquals(3, min.getArguments().size());
+        assertEquals(FunctionNode.Function.MAX, ((FunctionNode) comparison.getRight()).getFunction());
+
+        FunctionNode craftable = (FunctionNode) parse("craftable(forge:ingots/*)");
+        assertEquals(ValueType.BOOLEAN, craftable.getType());
+    }
+
+    @Test
+    void testInvalidFunctions() {
+        assertThrows(RuntimeException.class, () -> parse("avg(a, b) > 1"));
+        assertThrows(RuntimeException.class, () -> parse("sum(a, b > 1) > 1"));
+        assertThrows(RuntimeException.class, () -> parse("sum() > 1"));
+        assertThrows(RuntimeException.class, () -> parse("sum(a, b > 1"));
+        assertThrows(RuntimeException.class, () -> parse("craftable(a, b)"));
+        assertThrows(RuntimeException.class, () -> parse("craftable(a + 1)"));
+        assertThrows(RuntimeException.class, () -> parse("craftable(a) > 1"));
+    }
+
+    @Test
+    void testTagResolver() {
+        List<Token> tokens = new Tokenizer("fluid:water > 1000 && minecraft:stone > 0").tokenize();
+        Node node = new ExpressionParser(tokens, tag -> tag.startsWith("fluid:") ? "resolved" : tag).parse();
+
+        BinaryNode and = (BinaryNode) node;
+        assertEquals("resolved", ((TagNode) ((BinaryNode) and.getLeft()).getLeft()).getTag());
+        assertEquals("minecraft:stone", ((TagNode) ((BinaryNode) and.getRight()).getLeft()).getTag());
+    }
+
     private Node parse(String expression) {
         Tokenizer tokenizer = new Tokenizer(expression);
         List<Token> tokens = tokenizer.tokenize();
@@ -1,7 +1,9 @@
 package stone.mae2.logic.expression;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Mock implementation of InventoryContext for testing expression evaluation.
@@ -9,6 +11,7 @@ import java.util.Map;
  */
 public class MockInventoryContext implements InventoryContext {
     private final Map<String, Long> inventory = new HashMap<>();
+    private final Set<String> craftables = new HashSet<>();
 
     /**
      * Set a specific item count for testing.
@@ -17,21 +20,38 @@ public class MockInventoryContext implements InventoryContext {
         inventory.put(identifier, count);
     }
 
+    /**
+     * Mark an identifier as having a pattern to craft it.
+     */
+    public void setCraftable(String identifier) {
+        craftables.add(identifier);
+    }
+
     /**
      * Clear the inventory for testing.
      */
     public void clear() {
         inventory.clear();
+        craftables.clear();
+    }
+
+    @Override
+    public boolean isCraftable(String tag) {
+        if (WildcardPattern.isWildcard(tag)) {
+            WildcardPattern pattern = WildcardPattern.compile(tag);
+            return craftables.stream().anyMatch(pattern::matches);
+        }
+        return craftables.contains(tag);
     }
 
     @Override
     public long getCount(String tag) {
         // Support wildcard patterns
-        if (tag.contains("*")) {
+        if (WildcardPattern.isWildcard(tag)) {
             long sum = 0;
-            String regex = tag.replace("*", ".*");
+            WildcardPattern pattern = WildcardPattern.compile(tag);
             for (Map.Entry<String, Long> entry : inventory.entrySet()) {
-                if (entry.getKey().matches(regex)) {
+                if (pattern.matches(entry.getKey())) {
                     sum += entry.getValue();
                 }
             }
@@ -206,4 +206,41 @@ class TokenizerTest {
         assertEquals(TokenType.EOF, tokens.get(3).getType());
     }
 
+    @Test
+    void testArithmeticOperators() {
+        List<Token> tokens = new Tokenizer("a + 2 - b * 3 / c % 4, 1*2").tokenize();
+
+        assertEquals(TokenType.PLUS, tokens.get(1).getType());
+        assertEquals(TokenType.MINUS, tokens.get(3).getType());
+        assertEquals(TokenType.MULTIPLY, tokens.get(5).getType());
+        assertEquals(TokenType.DIVIDE, tokens.get(7).getType());
+        assertEquals(TokenType.MODULO, tokens.get(9).getType());
+        assertEquals(TokenType.COMMA, tokens.get(11).getType());
+        assertEquals(TokenType.MULTIPLY, tokens.get(13).getType());
+    }
+
+    @Test
+    void testStarAsWildcardOrMultiply() {
+        // After a value '*' multiplies, otherwise it starts a pattern
+        List<Token> tokens = new Tokenizer("*:stone * *_log").tokenize();
+
+        assertEquals(4, tokens.size());
+        assertEquals("*:stone", tokens.get(0).getValue());
+        assertEquals(TokenType.MULTIPLY, tokens.get(1).getType());
+        assertEquals("*_log", tokens.get(2).getValue());
+
+        // Inside an id it's always part of the pattern
+        tokens = new Tokenizer("minecraft:*_log").tokenize();
+        assertEquals(2, tokens.size());
+        assertEquals(TokenType.IDENTIFIER, tokens.get(0).getType());
+    }
+
+    @Test
+    void testNormalize() {
+        String spaced = Tokenizer.normalize(new Tokenizer("( minecraft:stone>10 )&&!  forge:ingots/*  ==0").tokenize());
+        String compact = Tokenizer.normalize(new Tokenizer("(minecraft:stone > 10) && !forge:ingots/* == 0").tokenize());
+
+        assertEquals("( minecraft:stone > 10 ) && ! forge:ingots/* == 0", spaced);
+        assertEquals(spaced, compact);
+    }
 }
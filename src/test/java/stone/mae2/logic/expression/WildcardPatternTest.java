@@ -0,0 +1,58 @@
+package stone.mae2.logic.expression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the wildcard pattern matcher.
+ */
+class WildcardPatternTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "minecraft:*, minecraft:stone, true",
+        "minecraft:*, forge:ingots/iron, false",
+        "*:stone, minecraft:stone, true",
+        "*:stone, minecraft:stone_bricks, false",
+        "forge:ingots/*, forge:ingots/iron, true",
+        "forge:ingots/*, forge:ingots, false",
+        "*ingot*, minecraft:iron_ingot, true",
+        "*ingot*, forge:ingots/iron, true",
+        "*ingot*, minecraft:iron_nugget, false",
+        "minecraft:*_log, minecraft:oak_log, true",
+        "minecraft:*_log, minecraft:oak_log_slab, false",
+        "*, minecraft:stone, true",
+        "a*b*c, abc, true",
+        "a*b*c, acb, false",
+        "a*a, a, false",
+        "ab*bc, abc, false",
+        "ab*bc, abbc, true",
+    })
+    void testMatches(String pattern, String text, boolean expected) {
+        assertEquals(expected, WildcardPattern.compile(pattern).matches(text));
+    }
+
+    @Test
+    void testLiteralCharacters() {
+        // dots are plain characters, not "any character" like in a regex
+        WildcardPattern pattern = WildcardPattern.compile("mod:item.*");
+        assertTrue(pattern.matches("mod:item.one"));
+        assertFalse(pattern.matches("mod:itemxone"));
+    }
+
+    @Test
+    void testMatchesAny() {
+        WildcardPattern pattern = WildcardPattern.compile("forge:ingots/*");
+        assertTrue(pattern.matchesAny(new String[] {"minecraft:iron_ingot", "forge:ingots/iron"}));
+        assertFalse(pattern.matchesAny(new String[] {"minecraft:stone"}));
+    }
+
+    @Test
+    void testIsWildcard() {
+        assertTrue(WildcardPattern.isWildcard("minecraft:*"));
+        assertFalse(WildcardPattern.isWildcard("minecraft:stone"));
+    }
+}